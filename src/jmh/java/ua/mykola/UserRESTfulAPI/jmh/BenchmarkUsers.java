@@ -0,0 +1,58 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import ua.mykola.UserRESTfulAPI.dao.UserRepository;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The dataset of the benchmarks: the synthetic users of {@link UserUtil}, whose birth dates
+ * are spread evenly over {@link #BIRTH_DATE_DAYS} days from {@link #FIRST_BIRTH_DATE}.
+ */
+final class BenchmarkUsers {
+    static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1950, 1, 1);
+    static final int BIRTH_DATE_DAYS = 18_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    private BenchmarkUsers() {
+    }
+
+    /**
+     * Saves synthetic users with IDs from 1 to count into an empty storage.
+     *
+     * @param storage - the storage to fill
+     * @param count - the number of users
+     */
+    static void fill(UserRepository storage, int count) {
+        for (int n = 0; n < count; n += BATCH_SIZE) {
+            List<User> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = n; i < Math.min(n + BATCH_SIZE, count); i++) {
+                batch.add(user(i));
+            }
+            storage.saveAll(batch);
+        }
+    }
+
+    static User user(long n) {
+        return UserUtil.getSyntheticUser(n);
+    }
+
+    static String email(long n) {
+        return "user" + n + "@example.com";
+    }
+
+    /**
+     * Picks the start of a birth date range that lies within the birth dates of the dataset.
+     *
+     * @param random - the random generator of the thread
+     * @param rangeDays - the length of the range in days
+     * @return the start of the range
+     */
+    static LocalDate randomBirthDate(SplittableRandom random, int rangeDays) {
+        return FIRST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATE_DAYS - rangeDays));
+    }
+}
@@ -0,0 +1,84 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.mykola.UserRESTfulAPI.dao.ConcurrentLongHashMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of looking up and replacing values by id in the primary map of the default storage,
+ * {@link ConcurrentLongHashMap}, and in the {@link ConcurrentHashMap} of boxed ids it replaced,
+ * on one thread. The setup prints the heap taken per entry by each map; the values are one
+ * shared object, so only the map itself is measured.
+ * {@link IdMapConcurrentBenchmark} runs the same lookups on several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(1)
+@State(Scope.Benchmark)
+public class IdMapBenchmark {
+    private static final Object VALUE = new Object();
+
+    @Param({"boxed", "primitive"})
+    public String map;
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int entries;
+
+    private ConcurrentHashMap<Long, Object> boxedMap;
+    private ConcurrentLongHashMap<Object> primitiveMap;
+
+    @Setup
+    public void fill() {
+        long heapBefore = usedHeap();
+        if (map.equals("boxed")) {
+            boxedMap = new ConcurrentHashMap<>();
+            for (long id = 1; id <= entries; id++) {
+                boxedMap.put(id, VALUE);
+            }
+        } else {
+            primitiveMap = new ConcurrentLongHashMap<>();
+            for (long id = 1; id <= entries; id++) {
+                primitiveMap.put(id, VALUE);
+            }
+        }
+        System.out.printf("%n%s map: %.1f heap bytes per entry%n", map, (double) (usedHeap() - heapBefore) / entries);
+    }
+
+    @Benchmark
+    public Object get(RandomIds ids) {
+        long id = ids.next(entries);
+        return boxedMap != null ? boxedMap.get(id) : primitiveMap.get(id);
+    }
+
+    @Benchmark
+    public Object computeIfPresent(RandomIds ids) {
+        long id = ids.next(entries);
+        return boxedMap != null
+                ? boxedMap.computeIfPresent(id, (key, value) -> value)
+                : primitiveMap.computeIfPresent(id, (key, value) -> value);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
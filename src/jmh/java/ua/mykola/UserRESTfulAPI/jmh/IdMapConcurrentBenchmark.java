@@ -0,0 +1,10 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The lookups of {@link IdMapBenchmark} run on four threads at once.
+ */
+@Threads(4)
+public class IdMapConcurrentBenchmark extends IdMapBenchmark {
+}
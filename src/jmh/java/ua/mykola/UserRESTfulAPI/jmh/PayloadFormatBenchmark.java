@@ -0,0 +1,82 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ua.mykola.UserRESTfulAPI.rest.cbor.UserCborHttpMessageConverter;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Time of encoding a list of user data into a response body and of decoding it back, as JSON and
+ * as CBOR with dates in epoch days, with the object mappers the controller uses. The setup prints
+ * the size of the encoded list in both formats. User data is built anew for every encoding, so the
+ * JSON kept with stored users is not used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"1", "1000"})
+    public int size;
+
+    private List<UserDto> userDtos;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void prepare() throws IOException {
+        userDtos = LongStream.range(0, size)
+                .mapToObj(n -> {
+                    UserDto userDto = UserDto.fromEntity(BenchmarkUsers.user(n));
+                    userDto.setId(n + 1);
+                    return userDto;
+                })
+                .toList();
+        ObjectMapper mapper = format.equals("cbor")
+                ? new UserCborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper()
+                : Jackson2ObjectMapperBuilder.json().build();
+        TypeReference<List<UserDto>> listType = new TypeReference<>() {
+        };
+        writer = mapper.writerFor(listType);
+        reader = mapper.readerFor(listType);
+        payload = writer.writeValueAsBytes(userDtos);
+        System.out.printf("%n%s: %d bytes for %d users, %.1f bytes per user%n",
+                format, payload.length, size, (double) payload.length / size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(userDtos);
+    }
+
+    @Benchmark
+    public List<UserDto> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+}
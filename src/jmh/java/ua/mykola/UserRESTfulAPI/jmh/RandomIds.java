@@ -0,0 +1,28 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+/**
+ * A random generator of every benchmark thread, so threads never share one.
+ */
+@State(Scope.Thread)
+public class RandomIds {
+    private final SplittableRandom random = new SplittableRandom();
+
+    /**
+     * Picks a random ID of a stored user.
+     *
+     * @param users - the number of stored users
+     * @return an ID from 1 to users
+     */
+    public long next(int users) {
+        return random.nextLong(1, users + 1L);
+    }
+
+    public SplittableRandom random() {
+        return random;
+    }
+}
@@ -0,0 +1,84 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.rest.caching.EncodedUserJsonModule;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.service.UserServiceImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work of the reads by ID and of all users per request: the service call alone, and the service call
+ * followed by the serialization to JSON the controller would do. {@code mapped} maps every user to new
+ * user data on every read, as the service did before it kept the user data with the stored user.
+ * {@code encoded} serializes with {@link EncodedUserJsonModule}, which writes the JSON kept with the
+ * user data instead of encoding it again.
+ * Run with {@code -prof gc} to see the bytes allocated per request in {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    @Param({"1000", "100000"})
+    public int users;
+
+    @Param({"encoded", "cached", "mapped"})
+    public String mapping;
+
+    private UserDefaultStorage storage;
+    private UserServiceImpl service;
+    private ObjectWriter writer;
+
+    @Setup
+    public void fill() {
+        storage = new UserDefaultStorage();
+        BenchmarkUsers.fill(storage, users);
+        service = new UserServiceImpl(storage);
+        service.getAll();
+        Jackson2ObjectMapperBuilder mapperBuilder = Jackson2ObjectMapperBuilder.json();
+        if (mapping.equals("encoded")) {
+            mapperBuilder.modulesToInstall(new EncodedUserJsonModule());
+        }
+        writer = mapperBuilder.build().writer();
+    }
+
+    @Benchmark
+    public UserDto getById(RandomIds ids) {
+        long id = ids.next(users);
+        return !mapping.equals("mapped") ? service.getById(id) : UserDto.fromEntity(storage.getById(id).orElseThrow());
+    }
+
+    @Benchmark
+    public List<UserDto> getAll() {
+        return !mapping.equals("mapped") ? service.getAll() : storage.getAll().stream().map(UserDto::fromEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] getByIdAsJson(RandomIds ids) throws JsonProcessingException {
+        return writer.writeValueAsBytes(getById(ids));
+    }
+
+    @Benchmark
+    public byte[] getAllAsJson() throws JsonProcessingException {
+        return writer.writeValueAsBytes(getAll());
+    }
+}
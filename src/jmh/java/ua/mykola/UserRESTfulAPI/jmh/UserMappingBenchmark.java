@@ -0,0 +1,81 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Time of mapping lists of users to user data and back, and of serializing user data to JSON
+ * with an object mapper configured the way Spring Boot configures it, on one thread.
+ * {@link UserMappingConcurrentBenchmark} runs the same work on several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private List<User> users;
+    private List<UserDto> userDtos;
+    private ObjectWriter writer;
+
+    @Setup
+    public void prepare() {
+        users = LongStream.range(0, size)
+                .mapToObj(n -> {
+                    User user = BenchmarkUsers.user(n);
+                    user.setId(n + 1);
+                    user.setVersion(1);
+                    return user;
+                })
+                .toList();
+        userDtos = users.stream().map(UserDto::fromEntity).toList();
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(new TypeReference<List<UserDto>>() {
+        });
+    }
+
+    @Benchmark
+    public List<UserDto> fromEntity() {
+        return users.stream().map(UserDto::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<User> toEntity() {
+        return userDtos.stream().map(UserDto::toEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(userDtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users.stream().map(UserDto::fromEntity).toList());
+    }
+}
@@ -0,0 +1,10 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The work of {@link UserMappingBenchmark} run on four threads at once.
+ */
+@Threads(4)
+public class UserMappingConcurrentBenchmark extends UserMappingBenchmark {
+}
@@ -0,0 +1,56 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.service.UserServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a birth date range search through the service, which includes the mapping to user data,
+ * for ranges of growing selectivity. Both ends of a range are exclusive, and with the default
+ * dataset a day matches about users / 18000 users, so a 365-day range of 100000 users
+ * returns about 2000 of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    @Param({"100000"})
+    public int users;
+
+    @Param({"2", "30", "365", "3650"})
+    public int rangeDays;
+
+    private UserServiceImpl service;
+
+    @Setup
+    public void fill() {
+        UserDefaultStorage storage = new UserDefaultStorage();
+        BenchmarkUsers.fill(storage, users);
+        service = new UserServiceImpl(storage);
+    }
+
+    @Benchmark
+    public List<UserDto> getByBirthDateRange(RandomIds ids) {
+        LocalDate from = BenchmarkUsers.randomBirthDate(ids.random(), rangeDays);
+        return service.getByBirthDateRange(from, from.plusDays(rangeDays));
+    }
+}
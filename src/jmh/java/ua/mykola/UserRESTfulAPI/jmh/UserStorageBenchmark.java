@@ -0,0 +1,83 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the operations of the default storage at several dataset sizes, on one thread.
+ * {@link UserStorageConcurrentBenchmark} runs the same operations on several threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Threads(1)
+@State(Scope.Benchmark)
+public class UserStorageBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final int RANGE_DAYS = 30;
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    private UserDefaultStorage storage;
+    private final AtomicLong newUsers = new AtomicLong();
+
+    @Setup
+    public void fill() {
+        storage = new UserDefaultStorage();
+        BenchmarkUsers.fill(storage, users);
+        newUsers.set(users);
+    }
+
+    @Benchmark
+    public Optional<User> getById(RandomIds ids) {
+        return storage.getById(ids.next(users));
+    }
+
+    @Benchmark
+    public Optional<User> getByEmail(RandomIds ids) {
+        return storage.getByEmail(BenchmarkUsers.email(ids.next(users) - 1));
+    }
+
+    @Benchmark
+    public List<User> getPage(RandomIds ids) {
+        return storage.getPage(ids.next(users), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<User> getByBirthDateRange(RandomIds ids) {
+        LocalDate from = BenchmarkUsers.randomBirthDate(ids.random(), RANGE_DAYS);
+        return storage.getByBirthDateRange(from, from.plusDays(RANGE_DAYS));
+    }
+
+    @Benchmark
+    public User update(RandomIds ids) {
+        return storage.update(User.builder().id(ids.next(users)).phoneNumber("+380501234567").build());
+    }
+
+    @Benchmark
+    public void saveAndDelete() {
+        User user = storage.save(BenchmarkUsers.user(newUsers.getAndIncrement()));
+        storage.delete(user.getId());
+    }
+}
@@ -0,0 +1,10 @@
+package ua.mykola.UserRESTfulAPI.jmh;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The operations of {@link UserStorageBenchmark} run on four threads at once.
+ */
+@Threads(4)
+public class UserStorageConcurrentBenchmark extends UserStorageBenchmark {
+}
@@ -0,0 +1,155 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index of users by the words of their address.
+ * <p>
+ * Every address is split into lower-cased tokens, and every token maps to a posting list
+ * of the ids of users whose address contains it. A multi-word query intersects the posting
+ * lists, walking the shortest one a chunk at a time and stopping at the limit, so its cost
+ * depends on the rarest word and the limit rather than on the number of users. Posting lists
+ * are created and dropped inside an atomic compute on the token, so an empty list is never left behind.
+ */
+class AddressIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    /**
+     * The number of ids taken from the shortest posting list at a time.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private final ConcurrentMap<String, PostingList> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the address of a user to the index.
+     *
+     * @param user - the user to add
+     */
+    void add(User user) {
+        tokenize(user.getAddress()).forEach(token -> addToken(token, user.getId()));
+    }
+
+    /**
+     * Removes the address of a user from the index.
+     *
+     * @param user - the user to remove
+     */
+    void remove(User user) {
+        tokenize(user.getAddress()).forEach(token -> removeToken(token, user.getId()));
+    }
+
+    /**
+     * Updates only the tokens that differ between the old and the new address.
+     *
+     * @param oldUser - the previous state of the user
+     * @param newUser - the new state of the user
+     */
+    void replace(User oldUser, User newUser) {
+        Set<String> oldTokens = tokenize(oldUser.getAddress());
+        Set<String> newTokens = tokenize(newUser.getAddress());
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                removeToken(token, oldUser.getId());
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                addToken(token, newUser.getId());
+            }
+        }
+    }
+
+    /**
+     * Finds the ids of users whose address contains every word of a query.
+     *
+     * @param query - the words to look for
+     * @param limit - the maximum number of ids to return
+     * @return the ids in ascending order
+     */
+    List<Long> findIds(String query, int limit) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        List<Long> ids = new ArrayList<>();
+        long[] chunk = new long[CHUNK_SIZE];
+        long afterId = 0;
+        while (true) {
+            int count = lists.get(0).copyAfter(afterId, chunk);
+            for (int i = 0; i < count; i++) {
+                if (ids.size() == limit) {
+                    return ids;
+                }
+                if (containsInAll(lists, chunk[i])) {
+                    ids.add(chunk[i]);
+                }
+            }
+            if (count < CHUNK_SIZE) {
+                return ids;
+            }
+            afterId = chunk[count - 1];
+        }
+    }
+
+    /**
+     * Splits an address into distinct lower-cased words.
+     *
+     * @param address - the address to split
+     * @return the distinct words in order of appearance
+     */
+    static Set<String> tokenize(String address) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (address == null) {
+            return tokens;
+        }
+        for (String token : SEPARATOR.split(address.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean containsInAll(List<PostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addToken(String token, long id) {
+        postings.compute(token, (key, list) -> {
+            PostingList postingList = list != null ? list : new PostingList();
+            postingList.add(id);
+            return postingList;
+        });
+    }
+
+    private void removeToken(String token, long id) {
+        postings.computeIfPresent(token, (key, list) -> {
+            list.remove(id);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index of users ordered by birth date.
+ * <p>
+ * Every user is kept as an (epoch day, id) entry in a skip list, so a range
+ * query costs O(log N + k) and neither reads nor writes take a lock.
+ * The index only holds ids; callers resolve them against the primary storage.
+ */
+class BirthDateIndex {
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Adds a user to the index.
+     *
+     * @param user - the user to add
+     */
+    void add(User user) {
+        if (user.getBirthDate() != null) {
+            entries.add(new Entry(user.getBirthDate().toEpochDay(), user.getId()));
+        }
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @param user - the user to remove
+     */
+    void remove(User user) {
+        if (user.getBirthDate() != null) {
+            entries.remove(new Entry(user.getBirthDate().toEpochDay(), user.getId()));
+        }
+    }
+
+    /**
+     * Moves a user to a new position in the index if the birth date has changed.
+     *
+     * @param oldUser - the previous state of the user
+     * @param newUser - the new state of the user
+     */
+    void replace(User oldUser, User newUser) {
+        if (!Objects.equals(oldUser.getBirthDate(), newUser.getBirthDate())) {
+            remove(oldUser);
+            add(newUser);
+        }
+    }
+
+    /**
+     * Finds the ids of users born strictly after one date and strictly before another.
+     *
+     * @param from - the exclusive start of the range
+     * @param to - the exclusive end of the range
+     * @return the ids ordered by birth date
+     */
+    List<Long> findIds(LocalDate from, LocalDate to) {
+        Entry fromEntry = new Entry(from.toEpochDay() + 1, Long.MIN_VALUE);
+        Entry toEntry = new Entry(to.toEpochDay(), Long.MIN_VALUE);
+        List<Long> ids = new ArrayList<>();
+        if (fromEntry.compareTo(toEntry) >= 0) {
+            return ids;
+        }
+        for (Entry entry : entries.subSet(fromEntry, true, toEntry, false)) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    private record Entry(long epochDay, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byDay = Long.compare(epochDay, other.epochDay);
+            return byDay != 0 ? byDay : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts a {@link CachingUserRepository} in front of the storage selected by {@code users.storage.mode}.
+ * <p>
+ * Enabled with {@code users.storage.cache.enabled=true}; the number of cached users is
+ * limited by {@code users.storage.cache.maximum-size}. The cache is the primary repository,
+ * so the service uses it, while the storage itself stays available to other beans.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.storage.cache.enabled", havingValue = "true")
+public class CachingStorageConfiguration {
+
+    @Bean
+    @Primary
+    public CachingUserRepository cachingUserRepository(UserRepository userRepository,
+                                                       @Value("${users.storage.cache.maximum-size:100000}") long maximumSize) {
+        return new CachingUserRepository(userRepository, maximumSize);
+    }
+}
@@ -0,0 +1,193 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A read-through cache of users by ID in front of another repository.
+ * <p>
+ * The cache is bounded and uses the W-TinyLFU policy of Caffeine: a new user is only
+ * admitted if it is used more often than the user it would evict, so a scan over many
+ * IDs that are read once cannot flush the frequently read users out of the cache.
+ * <p>
+ * Every write goes to the underlying repository first and then invalidates the cached
+ * user, instead of putting the new state into the cache. A cache load holds the lock of
+ * its key for the whole read from the repository, so an invalidation waits for a running
+ * load and removes whatever it cached, and concurrent writes to the same ID can never
+ * leave a stale user behind. Missing users are not cached. The key lock is a monitor, so on
+ * virtual threads a load pins its carrier thread while it reads from the repository.
+ * <p>
+ * The counters of the cache are published as Micrometer meters named {@code cache.*}.
+ * <p>
+ * Enabled with {@code users.storage.cache.enabled=true}.
+ */
+public class CachingUserRepository implements UserRepository, MeterBinder {
+    static final String CACHE_NAME = "users";
+
+    private final UserRepository delegate;
+    private final Cache<Long, User> cache;
+
+    /**
+     * Creates a cache in front of a repository.
+     *
+     * @param delegate - the repository that holds the users
+     * @param maximumSize - the maximum number of cached users
+     */
+    public CachingUserRepository(UserRepository delegate, long maximumSize) {
+        this(delegate, maximumSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a cache in front of a repository that runs its maintenance, such as
+     * evictions and frequency updates, on the given executor.
+     *
+     * @param delegate - the repository that holds the users
+     * @param maximumSize - the maximum number of cached users
+     * @param executor - runs the maintenance of the cache
+     */
+    CachingUserRepository(UserRepository delegate, long maximumSize, Executor executor) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .executor(executor)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the hit, miss and eviction counters of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Publishes the hit, miss, eviction and size meters of the cache, tagged {@code cache=users}.
+     * Spring Boot binds every {@link MeterBinder} bean to its registry, so they are scraped
+     * with the other metrics from {@code /actuator/prometheus}.
+     *
+     * @param registry - the registry of the meters
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Gets the approximate number of cached users.
+     *
+     * @return the number of cached users
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Performs pending evictions now instead of on a later cache operation.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    @Override
+    public Optional<User> getById(long id) {
+        return Optional.ofNullable(cache.get(id, key -> delegate.getById(key).orElse(null)));
+    }
+
+    @Override
+    public boolean isExist(long id) {
+        return cache.getIfPresent(id) != null || delegate.isExist(id);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public List<User> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        return delegate.getPage(afterId, limit);
+    }
+
+    @Override
+    public List<User> getByBirthDateRange(LocalDate from, LocalDate to) {
+        return delegate.getByBirthDateRange(from, to);
+    }
+
+    @Override
+    public List<User> searchByNamePrefix(String namePrefix, int limit) {
+        return delegate.searchByNamePrefix(namePrefix, limit);
+    }
+
+    @Override
+    public List<User> searchByAddress(String query, int limit) {
+        return delegate.searchByAddress(query, limit);
+    }
+
+    @Override
+    public Optional<User> getByEmail(String email) {
+        return delegate.getByEmail(email);
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) {
+        return delegate.saveAll(users);
+    }
+
+    @Override
+    public void delete(long id) {
+        delegate.delete(id);
+        cache.invalidate(id);
+    }
+
+    @Override
+    public List<Long> deleteAll(List<Long> ids) {
+        List<Long> deletedIds = delegate.deleteAll(ids);
+        cache.invalidateAll(deletedIds);
+        return deletedIds;
+    }
+
+    @Override
+    public User update(User updatedUser) {
+        User mergedUser = delegate.update(updatedUser);
+        cache.invalidate(updatedUser.getId());
+        return mergedUser;
+    }
+
+    @Override
+    public User update(User updatedUser, long expectedVersion) {
+        User mergedUser = delegate.update(updatedUser, expectedVersion);
+        cache.invalidate(updatedUser.getId());
+        return mergedUser;
+    }
+
+    @Override
+    public List<User> updateAll(List<User> updatedUsers) {
+        List<User> mergedUsers = delegate.updateAll(updatedUsers);
+        cache.invalidateAll(updatedUsers.stream().map(User::getId).toList());
+        return mergedUsers;
+    }
+}
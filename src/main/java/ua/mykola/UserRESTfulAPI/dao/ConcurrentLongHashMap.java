@@ -0,0 +1,339 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Concurrent open-addressing hash map from positive long keys to object values.
+ * <p>
+ * Keys live in a primitive array next to an array of values, so a lookup neither boxes its key
+ * nor follows a node per mapping, and a mapping takes a key and a reference instead of a node
+ * and a boxed key. Collisions are resolved by linear probing as in {@link LongLongHashMap}.
+ * <p>
+ * Reads never lock. A key keeps its slot for the lifetime of a table: a removed key stays
+ * as a tombstone with no value, and a new key is published by writing its value before its key.
+ * A reader probing with acquiring loads therefore finds every key that was there when it started,
+ * with its value or a newer one. When the table fills up with keys, live or removed, it is
+ * rebuilt without the tombstones and published as a whole, while readers of the previous
+ * table keep a consistent, if older, view.
+ * <p>
+ * Writes are spread over segments, each guarded by a lock. The compute methods run their function
+ * under the lock of the segment, so a change to one key is atomic with whatever the function does.
+ * The function should be short, as it holds up the other writes to the segment, and must not access the map.
+ *
+ * @param <V> - the type of the values
+ */
+public class ConcurrentLongHashMap<V> {
+    private static final int SEGMENTS = 64;
+
+    private final Segment<V>[] segments;
+
+    public ConcurrentLongHashMap() {
+        this(16 * SEGMENTS);
+    }
+
+    /**
+     * Creates a map sized for a number of mappings, so filling it up to that number does not resize it.
+     *
+     * @param expectedSize - the expected number of mappings
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongHashMap(int expectedSize) {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(expectedSize / SEGMENTS);
+        }
+    }
+
+    /**
+     * Returns the value of a key without locking.
+     *
+     * @param key - the key
+     * @return the value, or null if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key <= 0) {
+            return null;
+        }
+        return (V) segment(key).table.find(key);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value with a key, replacing the previous value.
+     *
+     * @param key - the positive key
+     * @param value - the value, not null
+     * @return the previous value, or null if the key was absent
+     */
+    public V put(long key, V value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        Segment<V> segment = segment(key);
+        segment.lock();
+        try {
+            return segment.put(key, value);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key - the key
+     * @return the removed value, or null if the key was absent
+     */
+    public V remove(long key) {
+        if (key <= 0) {
+            return null;
+        }
+        Segment<V> segment = segment(key);
+        segment.lock();
+        try {
+            return segment.remove(key);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Computes a new value for a key from its current value, or removes the key if the new value is null.
+     *
+     * @param key - the positive key
+     * @param remapping - computes the new value from the current one, which is null if the key is absent
+     * @return the new value, or null if there is none
+     */
+    public V compute(long key, Remapping<V> remapping) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        Segment<V> segment = segment(key);
+        segment.lock();
+        try {
+            return segment.compute(key, remapping, false);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Computes a new value for a present key from its current value, or removes the key if the new value is null.
+     *
+     * @param key - the key
+     * @param remapping - computes the new value from the current one
+     * @return the new value, or null if the key is absent or was removed
+     */
+    public V computeIfPresent(long key, Remapping<V> remapping) {
+        if (key <= 0) {
+            return null;
+        }
+        Segment<V> segment = segment(key);
+        segment.lock();
+        try {
+            return segment.compute(key, remapping, true);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Passes every value to an action without locking, one segment at a time. Changes made meanwhile
+     * to segments not yet visited are seen, those made to visited segments are not.
+     *
+     * @param action - the action to perform on every value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            Table table = segment.table;
+            for (int slot = 0; slot < table.values.length; slot++) {
+                Object value = table.value(slot);
+                if (value != null) {
+                    action.accept((V) value);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private Segment<V> segment(long key) {
+        return segments[(int) (key & (SEGMENTS - 1))];
+    }
+
+    /**
+     * Computes the new value of a key from its key and current value.
+     *
+     * @param <V> - the type of the values
+     */
+    @FunctionalInterface
+    public interface Remapping<V> {
+        V apply(long key, V value);
+    }
+
+    /**
+     * The table of a segment and the lock of its writers. The table reference is replaced
+     * by a rebuild, and its slots are only written while the lock is held.
+     */
+    private static final class Segment<V> extends ReentrantLock {
+        private volatile Table table;
+        private volatile int size;
+        private int usedSlots;
+
+        private Segment(int expectedSize) {
+            table = Table.forSize(expectedSize);
+        }
+
+        @SuppressWarnings("unchecked")
+        private V compute(long key, Remapping<V> remapping, boolean onlyIfPresent) {
+            int slot = table.slot(key);
+            V current = (V) table.value(slot);
+            if (current == null && onlyIfPresent) {
+                return null;
+            }
+            V value = remapping.apply(key, current);
+            if (value == null) {
+                remove(slot, current);
+                return null;
+            }
+            store(slot, key, value, current);
+            return value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(long key, V value) {
+            int slot = table.slot(key);
+            V current = (V) table.value(slot);
+            store(slot, key, value, current);
+            return current;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(long key) {
+            int slot = table.slot(key);
+            V current = (V) table.value(slot);
+            remove(slot, current);
+            return current;
+        }
+
+        private void remove(int slot, V current) {
+            if (current != null) {
+                table.setValue(slot, null);
+                size--;
+            }
+        }
+
+        private void store(int slot, long key, V value, V current) {
+            Table target = table;
+            target.setValue(slot, value);
+            if (current == null) {
+                size++;
+            }
+            if (target.keys[slot] == key) {
+                return;
+            }
+            target.setKey(slot, key);
+            if (++usedSlots > target.resizeThreshold) {
+                table = target.rebuild(size);
+                usedSlots = size;
+            }
+        }
+    }
+
+    /**
+     * The arrays of a segment. Readers load the keys and values with acquire semantics and writers
+     * store them with release semantics, so a reader that sees a key sees the value written before it.
+     */
+    private static final class Table {
+        private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+        private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+        private static final long EMPTY = 0;
+        private static final float LOAD_FACTOR = 0.75f;
+
+        private final long[] keys;
+        private final Object[] values;
+        private final int mask;
+        private final int resizeThreshold;
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+            resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        private static Table forSize(int expectedSize) {
+            return new Table(Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+        }
+
+        private Object find(long key) {
+            for (int slot = home(key), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                long current = (long) KEYS.getAcquire(keys, slot);
+                if (current == key) {
+                    return value(slot);
+                }
+                if (current == EMPTY) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the slot holding a key, live or removed, or the empty slot where it would be inserted.
+         */
+        private int slot(long key) {
+            int slot = home(key);
+            while (keys[slot] != key && keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private Object value(int slot) {
+            return VALUES.getAcquire(values, slot);
+        }
+
+        private void setValue(int slot, Object value) {
+            VALUES.setRelease(values, slot, value);
+        }
+
+        private void setKey(int slot, long key) {
+            KEYS.setRelease(keys, slot, key);
+        }
+
+        /**
+         * Copies the live mappings into a new table with room for as many again, leaving the tombstones behind.
+         */
+        private Table rebuild(int size) {
+            Table rebuilt = forSize(size * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null) {
+                    int slot = rebuilt.slot(keys[i]);
+                    rebuilt.keys[slot] = keys[i];
+                    rebuilt.values[slot] = values[i];
+                }
+            }
+            return rebuilt;
+        }
+
+        private int home(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
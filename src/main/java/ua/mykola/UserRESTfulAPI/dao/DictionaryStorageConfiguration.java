@@ -0,0 +1,26 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires a {@link UserDefaultStorage} that shares the repeated fields of its users through a {@link UserFieldDictionary}.
+ * <p>
+ * Enabled with {@code users.storage.mode=dictionary}. Users are kept on the heap without persistence,
+ * as in the default mode.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.storage.mode", havingValue = "dictionary")
+public class DictionaryStorageConfiguration {
+
+    @Bean
+    public UserFieldDictionary userFieldDictionary() {
+        return new UserFieldDictionary();
+    }
+
+    @Bean
+    public UserDefaultStorage userDefaultStorage(UserFieldDictionary userFieldDictionary) {
+        return new UserDefaultStorage(UserChangeLog.NONE, null, userFieldDictionary);
+    }
+}
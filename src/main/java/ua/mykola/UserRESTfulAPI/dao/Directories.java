@@ -0,0 +1,28 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Makes changes to the entries of a directory durable.
+ */
+final class Directories {
+
+    private Directories() {
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so files created, renamed or deleted in it survive a crash.
+     * Forcing a file only makes its content durable, not its name in the directory.
+     *
+     * @param directory - the directory to force
+     * @throws IOException if the directory cannot be opened or forced
+     */
+    static void force(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
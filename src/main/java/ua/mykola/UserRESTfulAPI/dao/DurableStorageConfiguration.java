@@ -0,0 +1,46 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Wires a {@link UserDefaultStorage} backed by a {@link WriteAheadLog} and periodic snapshots.
+ * <p>
+ * Enabled with {@code users.storage.mode=durable}. The log file is set by
+ * {@code users.storage.wal.path}, and {@code users.storage.wal.fsync} chooses
+ * the {@link WriteAheadLog.FsyncPolicy}. Snapshots are kept in
+ * {@code users.storage.snapshot.directory} and taken every
+ * {@code users.storage.snapshot.interval-seconds}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.storage.mode", havingValue = "durable")
+public class DurableStorageConfiguration {
+
+    @Bean
+    public WriteAheadLog writeAheadLog(@Value("${users.storage.wal.path:data/users.wal}") Path path,
+                                       @Value("${users.storage.wal.fsync:always}") String fsyncPolicy,
+                                       @Value("${users.storage.wal.fsync-interval-ms:10}") long fsyncIntervalMillis) {
+        return new WriteAheadLog(path, WriteAheadLog.FsyncPolicy.valueOf(fsyncPolicy.toUpperCase(Locale.ROOT)), fsyncIntervalMillis);
+    }
+
+    @Bean
+    public UserSnapshotStore userSnapshotStore(@Value("${users.storage.snapshot.directory:data}") Path directory) {
+        return new UserSnapshotStore(directory);
+    }
+
+    @Bean
+    public UserDefaultStorage userDefaultStorage(WriteAheadLog writeAheadLog, UserSnapshotStore userSnapshotStore) {
+        return new UserDefaultStorage(writeAheadLog, userSnapshotStore);
+    }
+
+    @Bean
+    public SnapshotScheduler snapshotScheduler(UserDefaultStorage userDefaultStorage,
+                                               @Value("${users.storage.snapshot.interval-seconds:300}") long intervalSeconds) {
+        return new SnapshotScheduler(userDefaultStorage, intervalSeconds);
+    }
+}
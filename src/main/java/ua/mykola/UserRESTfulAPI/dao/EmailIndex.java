@@ -0,0 +1,52 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Unique index of users by email.
+ * <p>
+ * Emails are compared case-insensitively. An email is reserved for an ID with a single
+ * atomic putIfAbsent, so two concurrent registrations with the same email can never both succeed.
+ */
+class EmailIndex {
+    private final ConcurrentMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves an email for a user.
+     *
+     * @param email - the email to reserve
+     * @param id - the ID of the user
+     * @return true if the email was free, false if it belongs to another user
+     */
+    boolean reserve(String email, long id) {
+        return email == null || idsByEmail.putIfAbsent(normalize(email), id) == null;
+    }
+
+    /**
+     * Releases the email of a user.
+     *
+     * @param email - the email to release
+     * @param id - the ID of the user that owns the email
+     */
+    void release(String email, long id) {
+        if (email != null) {
+            idsByEmail.remove(normalize(email), id);
+        }
+    }
+
+    /**
+     * Finds the ID of the user with an email.
+     *
+     * @param email - the email to look up
+     * @return the ID of the user, or null if no user has the email
+     */
+    Long find(String email) {
+        return idsByEmail.get(normalize(email));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,376 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A user storage in a relational database, accessed through JDBC.
+ * <p>
+ * Lookups are pushed into SQL and served by indexes: the birth-date range by an index on
+ * (birth_date, id), name prefixes by indexes on the lower-cased names, emails by a unique
+ * index on the normalized email and address words by a token table. Bulk inserts, updates
+ * and deletes are sent as JDBC batches in one transaction, and every update locks its row
+ * with SELECT ... FOR UPDATE, so the version check and the merge are atomic for the record.
+ * <p>
+ * IDs are allocated from a counter row, so a batch gets a single block of IDs with one
+ * round trip. The connection pool is the application's {@link DataSource}; prepared
+ * statements are cached by the driver per connection.
+ * <p>
+ * Enabled with {@code users.storage.mode=jdbc}, which the {@code jdbc} profile sets.
+ */
+@Component
+@ConditionalOnProperty(name = "users.storage.mode", havingValue = "jdbc")
+public class JdbcUserStorage implements UserRepository {
+    private static final String COLUMNS = "id, email, first_name, last_name, birth_date, address, phone_number, version";
+    private static final String INSERT_USER = "INSERT INTO users (id, email, email_key, first_name, first_name_key, "
+            + "last_name, last_name_key, birth_date, address, phone_number, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_USER = "UPDATE users SET first_name = ?, first_name_key = ?, last_name = ?, "
+            + "last_name_key = ?, birth_date = ?, address = ?, phone_number = ?, version = ? WHERE id = ?";
+    private static final String INSERT_TOKEN = "INSERT INTO user_address_tokens (token, user_id) VALUES (?, ?)";
+    private static final RowMapper<User> USER_MAPPER = (resultSet, rowNum) -> User.builder()
+            .id(resultSet.getLong("id"))
+            .email(resultSet.getString("email"))
+            .firstName(resultSet.getString("first_name"))
+            .lastName(resultSet.getString("last_name"))
+            .birthDate(resultSet.getObject("birth_date", LocalDate.class))
+            .address(resultSet.getString("address"))
+            .phoneNumber(resultSet.getString("phone_number"))
+            .version(resultSet.getLong("version"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcUserStorage(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public List<User> getAll() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users ORDER BY id", USER_MAPPER);
+    }
+
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE id > ? ORDER BY id LIMIT ?",
+                USER_MAPPER, afterId, limit);
+    }
+
+    @Override
+    public List<User> getByBirthDateRange(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE birth_date > ? AND birth_date < ? "
+                + "ORDER BY birth_date, id", USER_MAPPER, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Override
+    public List<User> searchByNamePrefix(String namePrefix, int limit) {
+        String pattern = escapeLike(namePrefix.toLowerCase(Locale.ROOT)) + "%";
+        // A user matches by first name, last name or both, so twice the limit always holds enough distinct users
+        List<User> matches = jdbcTemplate.query("SELECT " + COLUMNS + " FROM ("
+                        + "SELECT " + COLUMNS + ", first_name_key AS name_key FROM users WHERE first_name_key LIKE ? ESCAPE '\\' "
+                        + "UNION ALL "
+                        + "SELECT " + COLUMNS + ", last_name_key AS name_key FROM users WHERE last_name_key LIKE ? ESCAPE '\\'"
+                        + ") matches ORDER BY name_key, id LIMIT ?",
+                USER_MAPPER, pattern, pattern, 2 * limit);
+        Map<Long, User> distinctUsers = new LinkedHashMap<>();
+        for (User user : matches) {
+            if (distinctUsers.size() == limit) {
+                break;
+            }
+            distinctUsers.putIfAbsent(user.getId(), user);
+        }
+        return new ArrayList<>(distinctUsers.values());
+    }
+
+    @Override
+    public List<User> searchByAddress(String query, int limit) {
+        Set<String> tokens = AddressIndex.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = namedJdbcTemplate.queryForList("SELECT user_id FROM user_address_tokens WHERE token IN (:tokens) "
+                        + "GROUP BY user_id HAVING COUNT(*) = :count ORDER BY user_id LIMIT :limit",
+                Map.of("tokens", tokens, "count", tokens.size(), "limit", limit), Long.class);
+        return getByIds(ids);
+    }
+
+    @Override
+    public User save(User user) {
+        user.setId(allocateIds(1));
+        user.setVersion(UserChanges.FIRST_VERSION);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(user)));
+        } catch (DuplicateKeyException ex) {
+            throw new ConflictException("User with email:" + user.getEmail() + " already exists");
+        }
+        return user;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> newUsers) {
+        if (newUsers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long firstId = allocateIds(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            newUsers.get(i).setId(firstId + i);
+            newUsers.get(i).setVersion(UserChanges.FIRST_VERSION);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(newUsers));
+            return new ArrayList<>(newUsers);
+        } catch (DuplicateKeyException ex) {
+            // The batch was rolled back; insert one by one to find the users whose email is taken
+            List<User> savedUsers = new ArrayList<>(newUsers.size());
+            for (User user : newUsers) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(user)));
+                    savedUsers.add(user);
+                } catch (DuplicateKeyException duplicate) {
+                    savedUsers.add(null);
+                }
+            }
+            return savedUsers;
+        }
+    }
+
+    @Override
+    public Optional<User> getById(long id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE id = ?", USER_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public Optional<User> getByEmail(String email) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE email_key = ?", USER_MAPPER, emailKey(email))
+                .stream().findFirst();
+    }
+
+    @Override
+    public boolean isExist(long id) {
+        return !jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ?", Long.class, id).isEmpty();
+    }
+
+    @Override
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+    }
+
+    @Override
+    public void delete(long id) {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+    }
+
+    @Override
+    public List<Long> deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate("DELETE FROM users WHERE id = ?",
+                ids.stream().map(id -> new Object[]{id}).toList()));
+        List<Long> deletedIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] > 0) {
+                deletedIds.add(ids.get(i));
+            }
+        }
+        return deletedIds;
+    }
+
+    @Override
+    public User update(User updatedUser) {
+        return update(updatedUser, UserChanges.ANY_VERSION);
+    }
+
+    @Override
+    public User update(User updatedUser, long expectedVersion) {
+        return transactionTemplate.execute(status -> {
+            List<User> foundUsers = jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE id = ? FOR UPDATE",
+                    USER_MAPPER, updatedUser.getId());
+            if (foundUsers.isEmpty()) {
+                return null;
+            }
+            User foundUser = foundUsers.get(0);
+            UserChanges.checkVersion(foundUser, expectedVersion);
+            User mergedUser = UserChanges.apply(foundUser, updatedUser);
+            jdbcTemplate.update(UPDATE_USER, statement -> setUpdateParameters(statement, mergedUser));
+            if (!Objects.equals(foundUser.getAddress(), mergedUser.getAddress())) {
+                jdbcTemplate.update("DELETE FROM user_address_tokens WHERE user_id = ?", mergedUser.getId());
+                insertTokens(List.of(mergedUser));
+            }
+            return mergedUser;
+        });
+    }
+
+    /**
+     * Updates users in one transaction: their rows are locked by one query, the changes are merged
+     * in memory and written back with JDBC batches, so the batch takes a fixed number of round trips.
+     */
+    @Override
+    public List<User> updateAll(List<User> updatedUsers) {
+        if (updatedUsers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = updatedUsers.stream().map(User::getId).distinct().toList();
+            Map<Long, User> foundUsers = namedJdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE id IN (:ids) "
+                            + "ORDER BY id FOR UPDATE", Map.of("ids", ids), USER_MAPPER)
+                    .stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            Map<Long, User> currentUsers = new HashMap<>(foundUsers);
+            List<User> results = new ArrayList<>(updatedUsers.size());
+            List<User> mergedUsers = new ArrayList<>(updatedUsers.size());
+            for (User updatedUser : updatedUsers) {
+                User currentUser = currentUsers.get(updatedUser.getId());
+                if (currentUser == null) {
+                    results.add(null);
+                    continue;
+                }
+                User mergedUser = UserChanges.apply(currentUser, updatedUser);
+                currentUsers.put(mergedUser.getId(), mergedUser);
+                results.add(mergedUser);
+                mergedUsers.add(mergedUser);
+            }
+            if (mergedUsers.isEmpty()) {
+                return results;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_USER, mergedUsers, mergedUsers.size(), JdbcUserStorage::setUpdateParameters);
+
+            List<User> movedUsers = new ArrayList<>();
+            for (User foundUser : foundUsers.values()) {
+                User mergedUser = currentUsers.get(foundUser.getId());
+                if (!Objects.equals(foundUser.getAddress(), mergedUser.getAddress())) {
+                    movedUsers.add(mergedUser);
+                }
+            }
+            if (!movedUsers.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM user_address_tokens WHERE user_id = ?",
+                        movedUsers.stream().map(user -> new Object[]{user.getId()}).toList());
+                insertTokens(movedUsers);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Allocates a block of consecutive IDs in a transaction of its own,
+     * so the counter row stays locked only for one round trip.
+     *
+     * @param count - the number of IDs to allocate
+     * @return the first allocated ID
+     */
+    private long allocateIds(int count) {
+        Long lastId = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE user_id_counter SET last_id = last_id + ? WHERE id = 1", count);
+            return jdbcTemplate.queryForObject("SELECT last_id FROM user_id_counter WHERE id = 1", Long.class);
+        });
+        return Objects.requireNonNull(lastId) - count + 1;
+    }
+
+    /**
+     * Inserts users and their address tokens as two JDBC batches.
+     * Must be called inside a transaction.
+     *
+     * @param users - the users to insert, with allocated IDs
+     */
+    private void insert(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (statement, user) -> {
+            statement.setLong(1, user.getId());
+            statement.setString(2, user.getEmail());
+            statement.setString(3, emailKey(user.getEmail()));
+            statement.setString(4, user.getFirstName());
+            statement.setString(5, nameKey(user.getFirstName()));
+            statement.setString(6, user.getLastName());
+            statement.setString(7, nameKey(user.getLastName()));
+            statement.setDate(8, toDate(user.getBirthDate()));
+            statement.setString(9, user.getAddress());
+            statement.setString(10, user.getPhoneNumber());
+            statement.setLong(11, user.getVersion());
+        });
+        insertTokens(users);
+    }
+
+    private void insertTokens(List<User> users) {
+        List<Object[]> tokens = new ArrayList<>();
+        for (User user : users) {
+            for (String token : AddressIndex.tokenize(user.getAddress())) {
+                tokens.add(new Object[]{token, user.getId()});
+            }
+        }
+        if (!tokens.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN, tokens, tokens.size(), JdbcUserStorage::setTokenParameters);
+        }
+    }
+
+    private List<User> getByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, User> usersById = namedJdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE id IN (:ids)",
+                        Map.of("ids", ids), USER_MAPPER)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream().map(usersById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static void setUpdateParameters(PreparedStatement statement, User user) throws SQLException {
+        statement.setString(1, user.getFirstName());
+        statement.setString(2, nameKey(user.getFirstName()));
+        statement.setString(3, user.getLastName());
+        statement.setString(4, nameKey(user.getLastName()));
+        statement.setDate(5, toDate(user.getBirthDate()));
+        statement.setString(6, user.getAddress());
+        statement.setString(7, user.getPhoneNumber());
+        statement.setLong(8, user.getVersion());
+        statement.setLong(9, user.getId());
+    }
+
+    private static void setTokenParameters(PreparedStatement statement, Object[] token) throws SQLException {
+        statement.setString(1, (String) token[0]);
+        statement.setLong(2, (Long) token[1]);
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
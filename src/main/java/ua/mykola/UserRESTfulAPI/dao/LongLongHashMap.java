@@ -0,0 +1,154 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from positive long keys to long values.
+ * <p>
+ * Keys and values live in two primitive arrays, so there is no boxing and no entry object
+ * per mapping. Collisions are resolved by linear probing, and removal shifts the following
+ * entries back instead of leaving tombstones. The map is not thread-safe.
+ */
+class LongLongHashMap {
+    static final long NO_VALUE = -1;
+
+    private static final long EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    LongLongHashMap() {
+        this(16);
+    }
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key - the key
+     * @return the value, or {@link #NO_VALUE} if the key is absent
+     */
+    long get(long key) {
+        if (key <= 0) {
+            return NO_VALUE;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Associates a value with a key, replacing the previous value.
+     *
+     * @param key - the positive key
+     * @param value - the value
+     */
+    void put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size > resizeThreshold) {
+                values[slot] = value;
+                resize();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key - the key
+     * @return the removed value, or {@link #NO_VALUE} if the key was absent
+     */
+    long remove(long key) {
+        if (key <= 0) {
+            return NO_VALUE;
+        }
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long removed = values[slot];
+        shiftBack(slot);
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving back the entries
+     * of the same probe run that would otherwise become unreachable.
+     */
+    private void shiftBack(int gap) {
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            boolean reachableWithoutMove = gap <= next
+                    ? gap < home && home <= next
+                    : gap < home || home <= next;
+            if (!reachableWithoutMove) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = NO_VALUE;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,103 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index of users by first and last name for prefix search.
+ * <p>
+ * Every user is kept as two (lower-cased name, id) entries in a skip list, one for the
+ * first name and one for the last name. All names sharing a prefix form a contiguous run
+ * of entries, so a prefix query is a single O(log N) seek followed by reading the matches.
+ */
+class NamePrefixIndex {
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Adds the names of a user to the index.
+     *
+     * @param user - the user to add
+     */
+    void add(User user) {
+        addName(user.getFirstName(), user.getId());
+        addName(user.getLastName(), user.getId());
+    }
+
+    /**
+     * Removes the names of a user from the index.
+     *
+     * @param user - the user to remove
+     */
+    void remove(User user) {
+        removeName(user.getFirstName(), user.getId());
+        removeName(user.getLastName(), user.getId());
+    }
+
+    /**
+     * Updates the entries of a user whose names have changed.
+     *
+     * @param oldUser - the previous state of the user
+     * @param newUser - the new state of the user
+     */
+    void replace(User oldUser, User newUser) {
+        if (!Objects.equals(oldUser.getFirstName(), newUser.getFirstName())) {
+            removeName(oldUser.getFirstName(), oldUser.getId());
+            addName(newUser.getFirstName(), newUser.getId());
+        }
+        if (!Objects.equals(oldUser.getLastName(), newUser.getLastName())) {
+            removeName(oldUser.getLastName(), oldUser.getId());
+            addName(newUser.getLastName(), newUser.getId());
+        }
+    }
+
+    /**
+     * Finds the ids of users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param prefix - the name prefix
+     * @param limit - the maximum number of ids to return
+     * @return the distinct ids ordered by the matching name
+     */
+    List<Long> findIds(String prefix, int limit) {
+        String key = normalize(prefix);
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Entry entry : entries.tailSet(new Entry(key, Long.MIN_VALUE), true)) {
+            if (ids.size() == limit || !entry.name().startsWith(key)) {
+                break;
+            }
+            ids.add(entry.id());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private void addName(String name, long id) {
+        if (name != null) {
+            entries.add(new Entry(normalize(name), id));
+        }
+    }
+
+    private void removeName(String name, long id) {
+        if (name != null) {
+            entries.remove(new Entry(normalize(name), id));
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String name, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+    }
+}
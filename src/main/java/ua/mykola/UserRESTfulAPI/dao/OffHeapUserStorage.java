@@ -0,0 +1,316 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A user storage that keeps records outside the Java heap.
+ * <p>
+ * Every user is encoded by {@link UserRecordCodec} into a slot of a direct-memory slab,
+ * and the heap only holds a primitive id-to-address map per stripe plus the secondary
+ * indexes. {@link User} objects are created when a record is read and are never kept,
+ * so the number of live heap objects does not grow with the number of users.
+ * <p>
+ * Ids are spread over lock stripes. Reads of different users in the same stripe share
+ * a read lock, and a write only blocks its own stripe. Ids are allocated sequentially,
+ * so pages are served by probing the ids that follow the cursor.
+ * <p>
+ * Enabled with {@code users.storage.mode=off-heap}.
+ */
+@Component
+@ConditionalOnProperty(name = "users.storage.mode", havingValue = "off-heap")
+public class OffHeapUserStorage implements UserRepository {
+    private static final int STRIPES = 64;
+
+    private final AtomicLong nextId = new AtomicLong(0);
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final SlabAllocator allocator;
+    private final UserIndexes indexes = new UserIndexes();
+
+    public OffHeapUserStorage() {
+        this(SlabAllocator.DEFAULT_SLAB_SIZE);
+    }
+
+    OffHeapUserStorage(int slabSize) {
+        allocator = new SlabAllocator(slabSize);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public List<User> getAll() {
+        List<User> allUsers = new ArrayList<>();
+        long lastId = nextId.get();
+        for (long id = 1; id <= lastId; id++) {
+            User user = load(id);
+            if (user != null) {
+                allUsers.add(user);
+            }
+        }
+        return allUsers;
+    }
+
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        List<User> page = new ArrayList<>(limit);
+        long lastId = nextId.get();
+        for (long id = afterId + 1; id <= lastId && page.size() < limit; id++) {
+            User user = load(id);
+            if (user != null) {
+                page.add(user);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<User> getByBirthDateRange(LocalDate from, LocalDate to) {
+        return indexes.findByBirthDateRange(from, to, this::load);
+    }
+
+    @Override
+    public List<User> searchByNamePrefix(String namePrefix, int limit) {
+        return indexes.findByNamePrefix(namePrefix, limit, this::load);
+    }
+
+    @Override
+    public List<User> searchByAddress(String query, int limit) {
+        return indexes.findByAddress(query, limit, this::load);
+    }
+
+    @Override
+    public User save(User user) {
+        User savedUser = insert(nextId.incrementAndGet(), user);
+        if (savedUser == null) {
+            throw new ConflictException("User with email:" + user.getEmail() + " already exists");
+        }
+        return savedUser;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> newUsers) {
+        long firstId = nextId.getAndAdd(newUsers.size()) + 1;
+        List<User> savedUsers = new ArrayList<>(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            savedUsers.add(insert(firstId + i, newUsers.get(i)));
+        }
+        return savedUsers;
+    }
+
+    @Override
+    public Optional<User> getById(long id) {
+        return Optional.ofNullable(load(id));
+    }
+
+    @Override
+    public Optional<User> getByEmail(String email) {
+        return indexes.findByEmail(email, this::load);
+    }
+
+    @Override
+    public boolean isExist(long id) {
+        Stripe stripe = stripe(id);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.addresses.get(id) != LongLongHashMap.NO_VALUE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                count += stripe.addresses.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void delete(long id) {
+        remove(id);
+    }
+
+    @Override
+    public List<Long> deleteAll(List<Long> ids) {
+        List<Long> deletedIds = new ArrayList<>();
+        for (Long id : ids) {
+            if (remove(id)) {
+                deletedIds.add(id);
+            }
+        }
+        return deletedIds;
+    }
+
+    @Override
+    public User update(User updatedUser) {
+        return update(updatedUser, UserChanges.ANY_VERSION);
+    }
+
+    @Override
+    public User update(User updatedUser, long expectedVersion) {
+        long id = updatedUser.getId();
+        Stripe stripe = stripe(id);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            long address = stripe.addresses.get(id);
+            if (address == LongLongHashMap.NO_VALUE) {
+                return null;
+            }
+            User foundUser = read(address);
+            UserChanges.checkVersion(foundUser, expectedVersion);
+            User mergedUser = UserChanges.apply(foundUser, updatedUser);
+            byte[] record = UserRecordCodec.encode(mergedUser);
+            int oldLength = UserRecordCodec.length(allocator.slab(address), SlabAllocator.offset(address));
+            if (allocator.fitsSameSlot(oldLength, record.length)) {
+                write(address, record);
+            } else {
+                long newAddress = allocator.allocate(record.length);
+                write(newAddress, record);
+                stripe.addresses.put(id, newAddress);
+                allocator.free(address, oldLength);
+            }
+            indexes.replace(foundUser, mergedUser);
+            return mergedUser;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<User> updateAll(List<User> updatedUsers) {
+        List<User> results = new ArrayList<>(updatedUsers.size());
+        for (User updatedUser : updatedUsers) {
+            results.add(update(updatedUser));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the off-heap bytes taken by live records.
+     *
+     * @return the used off-heap bytes
+     */
+    public long offHeapUsedBytes() {
+        return allocator.usedBytes();
+    }
+
+    /**
+     * Returns the off-heap bytes reserved by all slabs.
+     *
+     * @return the reserved off-heap bytes
+     */
+    public long offHeapReservedBytes() {
+        return allocator.reservedBytes();
+    }
+
+    /**
+     * Encodes a user with the first version into a new slot and adds it to the indexes.
+     * The email is reserved first, so the user is not stored if the email is taken.
+     *
+     * @param newUserId - the allocated ID
+     * @param user - the user to store
+     * @return the stored user, or null if the email belongs to another user
+     */
+    private User insert(long newUserId, User user) {
+        user.setId(newUserId);
+        user.setVersion(UserChanges.FIRST_VERSION);
+        if (!indexes.reserveEmail(user)) {
+            return null;
+        }
+        byte[] record = UserRecordCodec.encode(user);
+        Stripe stripe = stripe(newUserId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            long address = allocator.allocate(record.length);
+            write(address, record);
+            stripe.addresses.put(newUserId, address);
+            indexes.add(user);
+        } finally {
+            lock.unlock();
+        }
+        return user;
+    }
+
+    /**
+     * Removes a user, frees its slot and drops its index entries.
+     *
+     * @param id - the ID of the user to remove
+     * @return true if the user existed
+     */
+    private boolean remove(long id) {
+        Stripe stripe = stripe(id);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            long address = stripe.addresses.remove(id);
+            if (address == LongLongHashMap.NO_VALUE) {
+                return false;
+            }
+            User removedUser = read(address);
+            allocator.free(address, UserRecordCodec.length(allocator.slab(address), SlabAllocator.offset(address)));
+            indexes.remove(removedUser);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads a user by ID, materializing it from its record.
+     *
+     * @param id - the ID of the user
+     * @return the user, or null if it does not exist
+     */
+    private User load(long id) {
+        Stripe stripe = stripe(id);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            long address = stripe.addresses.get(id);
+            return address != LongLongHashMap.NO_VALUE ? read(address) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private User read(long address) {
+        return UserRecordCodec.decode(allocator.slab(address), SlabAllocator.offset(address));
+    }
+
+    private void write(long address, byte[] record) {
+        ByteBuffer slab = allocator.slab(address);
+        slab.put(SlabAllocator.offset(address), record);
+    }
+
+    private Stripe stripe(long id) {
+        return stripes[(int) (id & (STRIPES - 1))];
+    }
+
+    private static final class Stripe {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongLongHashMap addresses = new LongLongHashMap();
+    }
+}
@@ -0,0 +1,144 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Sorted set of user ids stored in a primitive array.
+ * <p>
+ * Ids are allocated in increasing order, so adding a new user is usually an append.
+ * Membership tests are binary searches, which makes the list cheap to intersect with others.
+ * <p>
+ * Changes take the write lock of a {@link StampedLock}, and reads first run without locking
+ * and are only repeated under the read lock if a change overlapped them. Unlike a monitor,
+ * the lock never pins the carrier of a virtual thread that waits for it.
+ */
+class PostingList {
+    private final StampedLock lock = new StampedLock();
+    private long[] ids = new long[4];
+    private int size;
+
+    /**
+     * Adds an id to the list if it is not there yet.
+     *
+     * @param id - the id to add
+     */
+    void add(long id) {
+        long stamp = lock.writeLock();
+        try {
+            if (size > 0 && id <= ids[size - 1]) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, id);
+            } else {
+                insertAt(size, id);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes an id from the list.
+     *
+     * @param id - the id to remove
+     */
+    void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks whether the list contains an id.
+     *
+     * @param id - the id to look for
+     * @return true if the list contains the id
+     */
+    boolean contains(long id) {
+        long stamp = lock.tryOptimisticRead();
+        long[] currentIds = ids;
+        int currentSize = size;
+        boolean found = currentSize <= currentIds.length && Arrays.binarySearch(currentIds, 0, currentSize, id) >= 0;
+        if (lock.validate(stamp)) {
+            return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies the ids greater than a given one into a buffer, in ascending order, as many as fit.
+     * Walking a list chunk by chunk this way copies only the part of it a reader gets to.
+     *
+     * @param afterId - the id to start after, 0 to start from the first one
+     * @param buffer - receives the ids
+     * @return the number of ids copied, less than the buffer length only at the end of the list
+     */
+    int copyAfter(long afterId, long[] buffer) {
+        long stamp = lock.tryOptimisticRead();
+        int count = copyAfter(ids, size, afterId, buffer);
+        if (lock.validate(stamp)) {
+            return count;
+        }
+        stamp = lock.readLock();
+        try {
+            return copyAfter(ids, size, afterId, buffer);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int currentSize = size;
+        if (lock.validate(stamp)) {
+            return currentSize;
+        }
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Copies ids from a possibly inconsistent view of the list, read without the lock,
+     * without ever indexing out of the array.
+     */
+    private static int copyAfter(long[] ids, int size, long afterId, long[] buffer) {
+        int end = Math.min(size, ids.length);
+        int position = Arrays.binarySearch(ids, 0, end, afterId);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        int count = Math.min(buffer.length, end - from);
+        System.arraycopy(ids, from, buffer, 0, count);
+        return count;
+    }
+
+    private void insertAt(int position, long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+}
@@ -0,0 +1,26 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Exposes the storage selected by {@code users.storage.mode} as a {@link ReactiveUserRepository}.
+ * <p>
+ * Enabled with the {@code reactive} profile. The {@code durable} and {@code jdbc} storages block
+ * while they write to disk or query the database, so they are called on the bounded elastic
+ * scheduler; the other storages are called on the event loop.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveStorageConfiguration {
+
+    @Bean
+    public ReactiveUserRepositoryAdapter reactiveUserRepository(UserRepository userRepository,
+                                                                @Value("${users.storage.mode:default}") String mode) {
+        boolean blocking = mode.equals("durable") || mode.equals("jdbc");
+        return new ReactiveUserRepositoryAdapter(userRepository, blocking ? Schedulers.boundedElastic() : Schedulers.immediate());
+    }
+}
@@ -0,0 +1,147 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Non-blocking repository to work with User entities.
+ * Every method returns a publisher that does nothing until it is subscribed to,
+ * and never blocks the thread that subscribes.
+ */
+public interface ReactiveUserRepository {
+
+    /**
+     * Streams all users ordered by ID. Users are read from the storage one page at a time,
+     * and the next page is only read once the subscriber has requested more users.
+     *
+     * @return a stream of all users
+     */
+    Flux<User> getAll();
+
+    /**
+     * Retrieves a page of users ordered by ID, starting after the given ID.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @return at most limit users with IDs greater than afterId
+     */
+    Flux<User> getPage(long afterId, int limit);
+
+    /**
+     * Retrieves users whose birth dates fall strictly between two dates.
+     *
+     * @param from - the exclusive start date of the birth date range
+     * @param to - the exclusive end date of the birth date range
+     * @return the found users ordered by birth date
+     */
+    Flux<User> getByBirthDateRange(LocalDate from, LocalDate to);
+
+    /**
+     * Retrieves users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return at most limit users ordered by the matching name
+     */
+    Flux<User> searchByNamePrefix(String namePrefix, int limit);
+
+    /**
+     * Retrieves users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return at most limit users ordered by ID
+     */
+    Flux<User> searchByAddress(String query, int limit);
+
+    /**
+     * Saves a new user. Emails are unique regardless of case.
+     *
+     * @param user - the user to save
+     * @return the saved user, or a {@link ConflictException} if another user already has the same email
+     */
+    Mono<User> save(User user);
+
+    /**
+     * Saves new users in one call. IDs are allocated as a single block.
+     *
+     * @param users - the users to save
+     * @return the saved users in the same order, with null for users
+     * whose email already belongs to another user
+     */
+    Mono<List<User>> saveAll(List<User> users);
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param id - the ID of the user to retrieve
+     * @return the user, or empty if not found
+     */
+    Mono<User> getById(long id);
+
+    /**
+     * Retrieves a user by their email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return the user, or empty if not found
+     */
+    Mono<User> getByEmail(String email);
+
+    /**
+     * Checks if a user with the specified ID exists.
+     *
+     * @param id - the ID of the user to check
+     * @return true if the user exists, false otherwise
+     */
+    Mono<Boolean> isExist(long id);
+
+    /**
+     * Deletes a user by their ID.
+     *
+     * @param id - the ID of the user to delete
+     * @return completes when the user is deleted
+     */
+    Mono<Void> delete(long id);
+
+    /**
+     * Deletes users by their IDs. The existence check and the removal
+     * are a single atomic operation per user.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return the IDs of the users that existed and were deleted
+     */
+    Mono<List<Long>> deleteAll(List<Long> ids);
+
+    /**
+     * Updates an existing user. Only the non-null fields of the updated user are applied,
+     * and the change is applied atomically for the record.
+     *
+     * @param updatedUser - the updated user
+     * @return the updated user, or empty if the user does not exist
+     */
+    Mono<User> update(User updatedUser);
+
+    /**
+     * Updates an existing user only if it still has the expected version.
+     *
+     * @param updatedUser - the updated user
+     * @param expectedVersion - the version the stored user must have
+     * @return the updated user, empty if the user does not exist,
+     * or a {@link PreconditionFailedException} if the stored user has another version
+     */
+    Mono<User> update(User updatedUser, long expectedVersion);
+
+    /**
+     * Updates existing users, every one as a single atomic operation.
+     *
+     * @param updatedUsers - the updated users
+     * @return the updated users in the same order, with null for users that do not exist
+     */
+    Mono<List<User>> updateAll(List<User> updatedUsers);
+}
@@ -0,0 +1,135 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A {@link ReactiveUserRepository} over one of the blocking storages.
+ * <p>
+ * Every call to the storage runs on a scheduler when it is subscribed to. The in-memory
+ * storages answer without waiting, so they are called on the subscribing thread, while
+ * the durable and JDBC storages wait for the disk or the database and are called on a
+ * scheduler meant for blocking work, which keeps the event loop free.
+ * <p>
+ * {@link #getAll()} reads the storage by keyset pages and only reads the next page once
+ * the previous one has been requested by the subscriber, so a slow client holds at most
+ * one page of users in memory.
+ */
+public class ReactiveUserRepositoryAdapter implements ReactiveUserRepository {
+    static final int PAGE_SIZE = 1000;
+
+    private final UserRepository delegate;
+    private final Scheduler scheduler;
+
+    /**
+     * Creates a reactive repository over a blocking one.
+     *
+     * @param delegate - the repository that holds the users
+     * @param scheduler - runs the calls to the repository
+     */
+    public ReactiveUserRepositoryAdapter(UserRepository delegate, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Flux<User> getAll() {
+        return Flux.<List<User>, Long>generate(() -> 0L, (afterId, sink) -> {
+                    List<User> page = delegate.getPage(afterId, PAGE_SIZE);
+                    if (!page.isEmpty()) {
+                        sink.next(page);
+                    }
+                    if (page.size() < PAGE_SIZE) {
+                        sink.complete();
+                        return afterId;
+                    }
+                    return page.get(page.size() - 1).getId();
+                })
+                .subscribeOn(scheduler)
+                .flatMapIterable(page -> page, 1);
+    }
+
+    @Override
+    public Flux<User> getPage(long afterId, int limit) {
+        return many(() -> delegate.getPage(afterId, limit));
+    }
+
+    @Override
+    public Flux<User> getByBirthDateRange(LocalDate from, LocalDate to) {
+        return many(() -> delegate.getByBirthDateRange(from, to));
+    }
+
+    @Override
+    public Flux<User> searchByNamePrefix(String namePrefix, int limit) {
+        return many(() -> delegate.searchByNamePrefix(namePrefix, limit));
+    }
+
+    @Override
+    public Flux<User> searchByAddress(String query, int limit) {
+        return many(() -> delegate.searchByAddress(query, limit));
+    }
+
+    @Override
+    public Mono<User> save(User user) {
+        return one(() -> delegate.save(user));
+    }
+
+    @Override
+    public Mono<List<User>> saveAll(List<User> users) {
+        return one(() -> delegate.saveAll(users));
+    }
+
+    @Override
+    public Mono<User> getById(long id) {
+        return one(() -> delegate.getById(id).orElse(null));
+    }
+
+    @Override
+    public Mono<User> getByEmail(String email) {
+        return one(() -> delegate.getByEmail(email).orElse(null));
+    }
+
+    @Override
+    public Mono<Boolean> isExist(long id) {
+        return one(() -> delegate.isExist(id));
+    }
+
+    @Override
+    public Mono<Void> delete(long id) {
+        return Mono.<Void>fromRunnable(() -> delegate.delete(id)).subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<List<Long>> deleteAll(List<Long> ids) {
+        return one(() -> delegate.deleteAll(ids));
+    }
+
+    @Override
+    public Mono<User> update(User updatedUser) {
+        return one(() -> delegate.update(updatedUser));
+    }
+
+    @Override
+    public Mono<User> update(User updatedUser, long expectedVersion) {
+        return one(() -> delegate.update(updatedUser, expectedVersion));
+    }
+
+    @Override
+    public Mono<List<User>> updateAll(List<User> updatedUsers) {
+        return one(() -> delegate.updateAll(updatedUsers));
+    }
+
+    private <T> Mono<T> one(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+
+    private Flux<User> many(Callable<List<User>> call) {
+        return one(call).flatMapIterable(users -> users);
+    }
+}
@@ -0,0 +1,148 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates variable-sized records in large off-heap slabs.
+ * <p>
+ * Every record gets a slot rounded up to a power of two, and freed slots are kept
+ * in a free list per size, so space released by deletes and growing updates is reused
+ * and fragmentation stays bounded. An address packs the slab index into the high
+ * 32 bits and the offset inside the slab into the low 32 bits.
+ * <p>
+ * Allocation is guarded by a lock; reading and writing a slot is not, the caller
+ * must make sure a slot is not read while it is being freed or rewritten.
+ */
+class SlabAllocator {
+    static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+    private static final int MIN_SLOT_SIZE = 32;
+
+    private final int slabSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[][] freeSlots = new long[Integer.SIZE][];
+    private final int[] freeSlotCounts = new int[Integer.SIZE];
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private int currentOffset;
+    private long usedBytes;
+
+    SlabAllocator() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    SlabAllocator(int slabSize) {
+        if (Integer.bitCount(slabSize) != 1 || slabSize < MIN_SLOT_SIZE) {
+            throw new IllegalArgumentException("Slab size must be a power of two: " + slabSize);
+        }
+        this.slabSize = slabSize;
+        this.currentOffset = slabSize;
+    }
+
+    /**
+     * Allocates a slot large enough for a record.
+     *
+     * @param length - the length of the record in bytes
+     * @return the address of the slot
+     */
+    long allocate(int length) {
+        int slotSize = slotSize(length);
+        int sizeClass = Integer.numberOfTrailingZeros(slotSize);
+        lock.lock();
+        try {
+            usedBytes += slotSize;
+            if (freeSlotCounts[sizeClass] > 0) {
+                return freeSlots[sizeClass][--freeSlotCounts[sizeClass]];
+            }
+            if (currentOffset + slotSize > slabSize) {
+                addSlab();
+            }
+            long address = ((long) (slabs.length - 1) << 32) | currentOffset;
+            currentOffset += slotSize;
+            return address;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot to the free list of its size.
+     *
+     * @param address - the address of the slot
+     * @param length - the length of the record stored in the slot
+     */
+    void free(long address, int length) {
+        int slotSize = slotSize(length);
+        int sizeClass = Integer.numberOfTrailingZeros(slotSize);
+        lock.lock();
+        try {
+            usedBytes -= slotSize;
+            long[] slots = freeSlots[sizeClass];
+            if (slots == null) {
+                slots = freeSlots[sizeClass] = new long[16];
+            } else if (freeSlotCounts[sizeClass] == slots.length) {
+                slots = freeSlots[sizeClass] = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slots[freeSlotCounts[sizeClass]++] = address;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a record of a new length still fits the slot of a record of an old length.
+     *
+     * @param oldLength - the length of the record stored in the slot
+     * @param newLength - the length of the new record
+     * @return true if the new record can be written over the old one
+     */
+    boolean fitsSameSlot(int oldLength, int newLength) {
+        return slotSize(oldLength) == slotSize(newLength);
+    }
+
+    ByteBuffer slab(long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Returns the bytes taken by live records, rounded up to their slot sizes.
+     *
+     * @return the used bytes
+     */
+    long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the off-heap bytes reserved by all slabs.
+     *
+     * @return the reserved bytes
+     */
+    long reservedBytes() {
+        return (long) slabs.length * slabSize;
+    }
+
+    private int slotSize(int length) {
+        int slotSize = Math.max(MIN_SLOT_SIZE, Integer.highestOneBit(length - 1) << 1);
+        if (length > slabSize || slotSize > slabSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit a slab");
+        }
+        return slotSize;
+    }
+
+    private void addSlab() {
+        ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+        grown[slabs.length] = ByteBuffer.allocateDirect(slabSize);
+        slabs = grown;
+        currentOffset = 0;
+    }
+}
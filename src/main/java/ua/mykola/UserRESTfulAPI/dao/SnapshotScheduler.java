@@ -0,0 +1,50 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes snapshots of a storage periodically on a background thread.
+ */
+@Slf4j
+public class SnapshotScheduler implements Closeable {
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Starts taking snapshots.
+     *
+     * @param storage - the storage to snapshot
+     * @param intervalSeconds - the delay between the end of a snapshot and the start of the next one
+     */
+    public SnapshotScheduler(UserDefaultStorage storage, long intervalSeconds) {
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                storage.takeSnapshot();
+            } catch (RuntimeException ex) {
+                log.error("Cannot take a snapshot of the user storage", ex);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops taking snapshots, waiting for a running one to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
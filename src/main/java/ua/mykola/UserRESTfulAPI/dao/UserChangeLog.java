@@ -0,0 +1,135 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A log of the changes made to a user storage.
+ * <p>
+ * A storage appends the new state of a user while it holds the per-id lock of that user,
+ * so the log order matches the order of the changes to every single user; a batch holds the locks
+ * of all its users until its changes are appended. Appending never
+ * waits for the disk; the storage calls {@link #awaitDurable(long)} after releasing the lock.
+ */
+public interface UserChangeLog {
+
+    /**
+     * A log that keeps nothing, used by a storage without persistence.
+     */
+    UserChangeLog NONE = new UserChangeLog() {
+        @Override
+        public void replay(long afterPosition, Consumer<User> onSave, LongConsumer onDelete) {
+        }
+
+        @Override
+        public long position() {
+            return 0;
+        }
+
+        @Override
+        public long appendSave(User user) {
+            return 0;
+        }
+
+        @Override
+        public long appendDelete(long id) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public void discardThrough(long position) {
+        }
+    };
+
+    /**
+     * Passes the logged changes after a position, in log order, to the callbacks.
+     * Must be called once, before the first append.
+     *
+     * @param afterPosition - the position of the last change already restored, 0 to replay everything
+     * @param onSave - receives the saved or updated state of a user
+     * @param onDelete - receives the ID of a deleted user
+     */
+    void replay(long afterPosition, Consumer<User> onSave, LongConsumer onDelete);
+
+    /**
+     * Gets the position of the last appended change.
+     *
+     * @return the log position of the last change, 0 if nothing was logged
+     */
+    long position();
+
+    /**
+     * Fails if the log can no longer append, so a storage can refuse a change before making it
+     * instead of keeping a change that was never logged. A log that cannot fail does nothing.
+     *
+     * @throws RuntimeException if appends would fail
+     */
+    default void checkWritable() {
+    }
+
+    /**
+     * Appends the saved or updated state of a user.
+     *
+     * @param user - the new state of the user
+     * @return the log position of the change
+     */
+    long appendSave(User user);
+
+    /**
+     * Appends the deletion of a user.
+     *
+     * @param id - the ID of the deleted user
+     * @return the log position of the change
+     */
+    long appendDelete(long id);
+
+    /**
+     * Appends the new states of the users changed by a batch, in order. A log that writes
+     * to disk adds them as one group, so the batch shares one write and one fsync.
+     *
+     * @param users - the new states of the users
+     * @return the log position of the last change, 0 if there are none
+     */
+    default long appendSaves(List<User> users) {
+        long position = 0;
+        for (User user : users) {
+            position = appendSave(user);
+        }
+        return position;
+    }
+
+    /**
+     * Appends the deletions of the users removed by a batch, in order, as one group like {@link #appendSaves(List)}.
+     *
+     * @param ids - the IDs of the deleted users
+     * @return the log position of the last change, 0 if there are none
+     */
+    default long appendDeletes(List<Long> ids) {
+        long position = 0;
+        for (long id : ids) {
+            position = appendDelete(id);
+        }
+        return position;
+    }
+
+    /**
+     * Waits until the changes up to a position are as durable as the log promises.
+     *
+     * @param position - the log position to wait for
+     */
+    void awaitDurable(long position);
+
+    /**
+     * Allows the log to drop the changes up to a position, because they are kept elsewhere.
+     *
+     * @param position - the position of the last change that is no longer needed
+     */
+    void discardThrough(long position);
+}
@@ -0,0 +1,59 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+
+/**
+ * Applies partial updates to stored users.
+ */
+final class UserChanges {
+    static final long FIRST_VERSION = 1;
+    /**
+     * Expected by an unconditional update; real versions start at {@link #FIRST_VERSION}.
+     */
+    static final long ANY_VERSION = 0;
+
+    private UserChanges() {
+    }
+
+    /**
+     * Checks that a stored user has the version an update expects.
+     *
+     * @param storedUser - the currently stored user
+     * @param expectedVersion - the expected version, or {@link #ANY_VERSION}
+     * @throws PreconditionFailedException if the stored user has another version
+     */
+    static void checkVersion(User storedUser, long expectedVersion) {
+        if (expectedVersion != ANY_VERSION && storedUser.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("User by id:" + storedUser.getId()
+                    + " was changed by another request");
+        }
+    }
+
+    /**
+     * Creates a new user from the stored one, replacing the fields
+     * that are set in the changes. The ID and the email are never changed,
+     * and the version is incremented.
+     *
+     * @param storedUser - the currently stored user
+     * @param changes - the user carrying the fields to change
+     * @return a new user instance with the merged fields
+     */
+    static User apply(User storedUser, User changes) {
+        return User.builder()
+                .id(storedUser.getId())
+                .email(storedUser.getEmail())
+                .firstName(changes.getFirstName() != null
+                        ? changes.getFirstName() : storedUser.getFirstName())
+                .lastName(changes.getLastName() != null
+                        ? changes.getLastName() : storedUser.getLastName())
+                .birthDate(changes.getBirthDate() != null
+                        ? changes.getBirthDate() : storedUser.getBirthDate())
+                .address(changes.getAddress() != null
+                        ? changes.getAddress() : storedUser.getAddress())
+                .phoneNumber(changes.getPhoneNumber() != null
+                        ? changes.getPhoneNumber() : storedUser.getPhoneNumber())
+                .version(storedUser.getVersion() + 1)
+                .build();
+    }
+}
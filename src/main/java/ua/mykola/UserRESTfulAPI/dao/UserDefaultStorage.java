@@ -1,34 +1,232 @@
 package ua.mykola.UserRESTfulAPI.dao;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.LongStream;
 
 /**
- * A class that simulates the operation of a database
+ * A class that simulates the operation of a database.
+ * <p>
+ * Users are kept in a {@link ConcurrentLongHashMap} keyed by the primitive id, so a read
+ * by id neither locks nor allocates. A stored user is never modified in place:
+ * {@link #update(User)} builds a new instance and swaps it in atomically, so readers
+ * always observe either the old or the new state of a record.
+ * <p>
+ * Writes to one id are serialized by a lock of that id, which readers never take. Under it the
+ * new state is swapped into the primary map, which only locks a map segment for the swap itself,
+ * and then the secondary indexes and the dictionary are brought up to date, so they never
+ * disagree with the map for long.
+ * <p>
+ * IDs are allocated in increasing order, so keyset pagination needs no ordered set of ids:
+ * a page probes the map id by id. The number of stored users in every block of 256 ids is
+ * counted, and the blocks left empty by deletions are skipped without probing them.
+ * <p>
+ * Once made, every change is appended to a {@link UserChangeLog} under the same lock of the id,
+ * and a write returns once the log reports it durable. A write is refused before it changes
+ * anything once the log can no longer append, so readers never see a change the log has lost. A
+ * batch takes the locks of all its ids, makes its changes and appends them as one group, so it
+ * waits for the log only once. Without a log the storage keeps nothing between restarts; with
+ * {@code users.storage.mode=durable} it is backed by a {@link WriteAheadLog} that is replayed on
+ * startup.
+ * <p>
+ * A durable storage can also be snapshotted into a {@link UserSnapshotStore} while requests
+ * keep running. On startup the newest snapshot is loaded and only the log records written
+ * after it are replayed, and the log drops the records a snapshot already covers.
+ * <p>
+ * With a {@link UserFieldDictionary} the stored users share one instance of every repeated
+ * name, address and birth date, which {@code users.storage.mode=dictionary} enables.
+ * <p>
+ * This is the default storage, used unless {@code users.storage.mode} selects another one.
  */
 @Component
+@ConditionalOnProperty(name = "users.storage.mode", havingValue = "default", matchIfMissing = true)
 public class UserDefaultStorage implements UserRepository {
-    private AtomicLong nextId = new AtomicLong(0);
-    private final Map<Long, User> users = new HashMap<>();
+    private static final int WRITE_LOCKS = 1024;
+    private static final int BLOCK_SHIFT = 8;
+
+    private final AtomicLong nextId = new AtomicLong(0);
+    private final ConcurrentLongHashMap<User> users = new ConcurrentLongHashMap<>();
+    private final ConcurrentLongHashMap<AtomicInteger> liveBlocks = new ConcurrentLongHashMap<>();
+    private final UserIndexes indexes = new UserIndexes();
+    private final UserChangeLog changeLog;
+    private final UserSnapshotStore snapshots;
+    private final UserFieldDictionary dictionary;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_LOCKS];
+    private long snapshotPosition;
+
+    public UserDefaultStorage() {
+        this(UserChangeLog.NONE);
+    }
+
+    /**
+     * Creates a storage that restores its content from a change log and appends every change to it.
+     *
+     * @param changeLog - the log of changes
+     */
+    public UserDefaultStorage(UserChangeLog changeLog) {
+        this(changeLog, null);
+    }
+
+    /**
+     * Creates a storage that restores its content from the newest snapshot and the change log
+     * records written after it, and appends every change to the log.
+     *
+     * @param changeLog - the log of changes
+     * @param snapshots - the store of snapshots, or null to restore from the log only
+     */
+    public UserDefaultStorage(UserChangeLog changeLog, UserSnapshotStore snapshots) {
+        this(changeLog, snapshots, null);
+    }
+
+    /**
+     * Creates a storage that keeps the repeated fields of its users in a dictionary.
+     *
+     * @param changeLog - the log of changes
+     * @param snapshots - the store of snapshots, or null to restore from the log only
+     * @param dictionary - the dictionary of shared field values, or null to store every user as it is
+     */
+    public UserDefaultStorage(UserChangeLog changeLog, UserSnapshotStore snapshots, UserFieldDictionary dictionary) {
+        this.changeLog = changeLog;
+        this.snapshots = snapshots;
+        this.dictionary = dictionary;
+        for (int i = 0; i < WRITE_LOCKS; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
+        if (snapshots != null) {
+            UserSnapshotStore.Snapshot snapshot = snapshots.load(this::restoreSave);
+            nextId.accumulateAndGet(snapshot.nextId(), Math::max);
+            snapshotPosition = snapshot.logPosition();
+        }
+        changeLog.replay(snapshotPosition, this::restoreSave, this::restoreDelete);
+    }
+
+    /**
+     * Writes a snapshot of all users without blocking requests, unless nothing has changed
+     * since the previous one, and lets the change log drop the records the snapshot covers.
+     * <p>
+     * The snapshot covers the log up to the position read before the users are copied.
+     * A change is swapped into the map before it is logged, so a change logged up to that
+     * position is always seen when its user is copied. Changes made during the copy may or may not be
+     * included; the log records after the position are replayed on top of the snapshot, and
+     * since every record holds the full state of a user, replaying them again is harmless.
+     * Snapshots are taken one at a time under a lock that, unlike a monitor, does not pin the
+     * carrier of a virtual thread while the snapshot is written to disk.
+     *
+     * @return true if a snapshot was written
+     */
+    public boolean takeSnapshot() {
+        if (snapshots == null) {
+            throw new IllegalStateException("Storage has no snapshot store");
+        }
+        snapshotLock.lock();
+        try {
+            long logPosition = changeLog.position();
+            if (logPosition == snapshotPosition) {
+                return false;
+            }
+            snapshots.write(logPosition, nextId.get(), users::get);
+            changeLog.discardThrough(logPosition);
+            snapshotPosition = logPosition;
+            return true;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
 
     @Override
     public List<User> getAll() {
-        return new ArrayList<>(users.values());
+        List<User> allUsers = new ArrayList<>(users.size());
+        users.forEachValue(allUsers::add);
+        return allUsers;
     }
 
     @Override
     public User save(User user) {
-        long newUserId = nextId.incrementAndGet();
-        user.setId(newUserId);
-        users.put(newUserId, user);
-        return user;
+        changeLog.checkWritable();
+        LogPosition position = new LogPosition();
+        User savedUser = insert(nextId.incrementAndGet(), user, position);
+        if (savedUser == null) {
+            throw new ConflictException("User with email:" + user.getEmail() + " already exists");
+        }
+        changeLog.awaitDurable(position.value);
+        return savedUser;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> newUsers) {
+        changeLog.checkWritable();
+        long firstId = nextId.getAndAdd(newUsers.size()) + 1;
+        List<User> savedUsers = new ArrayList<>(newUsers.size());
+        List<User> reservedUsers = new ArrayList<>(newUsers.size());
+        for (int i = 0; i < newUsers.size(); i++) {
+            User user = newUsers.get(i);
+            boolean reserved = reserve(firstId + i, user);
+            savedUsers.add(reserved ? user : null);
+            if (reserved) {
+                reservedUsers.add(user);
+            }
+        }
+        long position;
+        BitSet stripes = lockStripes(LongStream.range(firstId, firstId + newUsers.size()));
+        try {
+            reservedUsers.forEach(this::store);
+            position = changeLog.appendSaves(reservedUsers);
+        } finally {
+            unlockStripes(stripes);
+        }
+        changeLog.awaitDurable(position);
+        return savedUsers;
+    }
+
+    /**
+     * Probes the IDs after the given one in order, up to the last allocated ID, and skips
+     * every block of IDs that holds no stored user without probing it.
+     */
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        List<User> page = new ArrayList<>(limit);
+        long lastId = nextId.get();
+        long id = Math.max(afterId, 0) + 1;
+        while (page.size() < limit && id <= lastId) {
+            if (!liveBlocks.containsKey(block(id))) {
+                id = ((id >>> BLOCK_SHIFT) + 1) << BLOCK_SHIFT;
+                continue;
+            }
+            User user = users.get(id);
+            if (user != null) {
+                page.add(user);
+            }
+            id++;
+        }
+        return page;
+    }
+
+    @Override
+    public List<User> getByBirthDateRange(LocalDate from, LocalDate to) {
+        return indexes.findByBirthDateRange(from, to, users::get);
+    }
+
+    @Override
+    public List<User> searchByNamePrefix(String namePrefix, int limit) {
+        return indexes.findByNamePrefix(namePrefix, limit, users::get);
+    }
+
+    @Override
+    public List<User> searchByAddress(String query, int limit) {
+        return indexes.findByAddress(query, limit, users::get);
     }
 
     @Override
@@ -36,40 +234,345 @@ public class UserDefaultStorage implements UserRepository {
         return Optional.ofNullable(users.get(id));
     }
 
+    @Override
+    public Optional<User> getByEmail(String email) {
+        return indexes.findByEmail(email, users::get);
+    }
+
     @Override
     public boolean isExist(long id) {
         return users.containsKey(id);
     }
 
+    @Override
+    public long count() {
+        return users.size();
+    }
+
     @Override
     public void delete(long id) {
-        users.remove(id);
+        changeLog.checkWritable();
+        LogPosition position = new LogPosition();
+        remove(id, position);
+        changeLog.awaitDurable(position.value);
+    }
+
+    @Override
+    public List<Long> deleteAll(List<Long> ids) {
+        changeLog.checkWritable();
+        List<Long> deletedIds = new ArrayList<>();
+        long position;
+        BitSet stripes = lockStripes(ids.stream().mapToLong(Long::longValue));
+        try {
+            for (Long id : ids) {
+                if (unlink(id)) {
+                    deletedIds.add(id);
+                }
+            }
+            position = changeLog.appendDeletes(deletedIds);
+        } finally {
+            unlockStripes(stripes);
+        }
+        changeLog.awaitDurable(position);
+        return deletedIds;
     }
 
     @Override
     public User update(User updatedUser) {
-        User foundUser = users.get(updatedUser.getId());
-        foundUser.setEmail(foundUser.getEmail());
+        return update(updatedUser, UserChanges.ANY_VERSION);
+    }
 
-        if (updatedUser.getFirstName() != null) {
-            foundUser.setFirstName(updatedUser.getFirstName());
+    @Override
+    public User update(User updatedUser, long expectedVersion) {
+        changeLog.checkWritable();
+        LogPosition position = new LogPosition();
+        User mergedUser = merge(updatedUser, expectedVersion, position);
+        changeLog.awaitDurable(position.value);
+        return mergedUser;
+    }
+
+    /**
+     * Updates users under the write locks of all their IDs and appends their new states as one group,
+     * so the batch waits for the log once.
+     */
+    @Override
+    public List<User> updateAll(List<User> updatedUsers) {
+        changeLog.checkWritable();
+        List<User> results = new ArrayList<>(updatedUsers.size());
+        List<User> mergedUsers = new ArrayList<>(updatedUsers.size());
+        long position;
+        BitSet stripes = lockStripes(updatedUsers.stream().mapToLong(User::getId));
+        try {
+            for (User updatedUser : updatedUsers) {
+                User mergedUser = swap(updatedUser, UserChanges.ANY_VERSION);
+                results.add(mergedUser);
+                if (mergedUser != null) {
+                    mergedUsers.add(mergedUser);
+                }
+            }
+            position = changeLog.appendSaves(mergedUsers);
+        } finally {
+            unlockStripes(stripes);
+        }
+        changeLog.awaitDurable(position);
+        return results;
+    }
+
+    /**
+     * Merges changes into a stored user and logs the new state under the write lock of the ID.
+     *
+     * @param updatedUser - the changes, with the ID of the user to update
+     * @param expectedVersion - the version the stored user must have, or {@link UserChanges#ANY_VERSION}
+     * @param position - receives the log position of the change
+     * @return the updated user, or null if there is no user with the ID
+     * @throws PreconditionFailedException if the stored user has another version
+     */
+    private User merge(User updatedUser, long expectedVersion, LogPosition position) {
+        ReentrantLock lock = writeLock(updatedUser.getId());
+        lock.lock();
+        try {
+            User mergedUser = swap(updatedUser, expectedVersion);
+            if (mergedUser != null) {
+                position.value = changeLog.appendSave(mergedUser);
+            }
+            return mergedUser;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks the version of a stored user, merges changes into it and moves it within the indexes.
+     * A failed version check leaves the user unchanged. Must be called under the write lock of the ID.
+     *
+     * @param updatedUser - the changes, with the ID of the user to update
+     * @param expectedVersion - the version the stored user must have, or {@link UserChanges#ANY_VERSION}
+     * @return the updated user, or null if there is no user with the ID
+     * @throws PreconditionFailedException if the stored user has another version
+     */
+    private User swap(User updatedUser, long expectedVersion) {
+        long id = updatedUser.getId();
+        User foundUser = users.get(id);
+        if (foundUser == null) {
+            return null;
+        }
+        UserChanges.checkVersion(foundUser, expectedVersion);
+        User mergedUser = UserChanges.apply(foundUser, updatedUser);
+        share(mergedUser);
+        users.put(id, mergedUser);
+        indexes.replace(foundUser, mergedUser);
+        unshare(foundUser);
+        return mergedUser;
+    }
+
+    /**
+     * Removes a user and logs the deletion under the write lock of the ID.
+     *
+     * @param id - the ID of the user to remove
+     * @param position - receives the log position of the change
+     * @return true if the user existed
+     */
+    private boolean remove(long id, LogPosition position) {
+        ReentrantLock lock = writeLock(id);
+        lock.lock();
+        try {
+            if (!unlink(id)) {
+                return false;
+            }
+            position.value = changeLog.appendDelete(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a user and its index entries. Must be called under the write lock of the ID.
+     *
+     * @param id - the ID of the user to remove
+     * @return true if the user existed
+     */
+    private boolean unlink(long id) {
+        User user = users.remove(id);
+        if (user == null) {
+            return false;
+        }
+        releaseBlock(id);
+        indexes.remove(user);
+        unshare(user);
+        return true;
+    }
+
+    /**
+     * Stores a user under a freshly allocated ID and logs it under the write lock of the ID.
+     *
+     * @param newUserId - the allocated ID
+     * @param user - the user to store
+     * @param position - receives the log position of the change
+     * @return the stored user, or null if the email belongs to another user
+     */
+    private User insert(long newUserId, User user, LogPosition position) {
+        if (!reserve(newUserId, user)) {
+            return null;
+        }
+        ReentrantLock lock = writeLock(newUserId);
+        lock.lock();
+        try {
+            store(user);
+            position.value = changeLog.appendSave(user);
+            return user;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives a new user its ID and the first version and reserves its email,
+     * so the user is not stored if the email is taken.
+     *
+     * @param newUserId - the allocated ID
+     * @param user - the user to store
+     * @return true if the email was reserved for the user
+     */
+    private boolean reserve(long newUserId, User user) {
+        user.setId(newUserId);
+        user.setVersion(UserChanges.FIRST_VERSION);
+        return indexes.reserveEmail(user);
+    }
+
+    /**
+     * Stores a user with a reserved email and adds it to the indexes. Must be called under the write lock of the ID.
+     *
+     * @param user - the user to store
+     */
+    private void store(User user) {
+        share(user);
+        holdBlock(user.getId());
+        users.put(user.getId(), user);
+        indexes.add(user);
+    }
+
+    /**
+     * Applies a saved or updated user while the storage is restored from a snapshot or the log.
+     * A snapshot may hold a user whose email is later released and taken by another user in the
+     * log, so the email is reserved again for every record.
+     *
+     * @param user - the logged state of the user
+     */
+    private void restoreSave(User user) {
+        nextId.accumulateAndGet(user.getId(), Math::max);
+        share(user);
+        User previous = users.put(user.getId(), user);
+        indexes.reserveEmail(user);
+        if (previous != null) {
+            indexes.replace(previous, user);
+            unshare(previous);
+        } else {
+            holdBlock(user.getId());
+            indexes.add(user);
         }
+    }
 
-        if (updatedUser.getLastName() != null) {
-            foundUser.setLastName(updatedUser.getLastName());
+    /**
+     * Applies a logged deletion while the storage is restored.
+     *
+     * @param id - the ID of the deleted user
+     */
+    private void restoreDelete(long id) {
+        nextId.accumulateAndGet(id, Math::max);
+        User previous = users.remove(id);
+        if (previous != null) {
+            releaseBlock(id);
+            indexes.remove(previous);
+            unshare(previous);
         }
+    }
 
-        if (updatedUser.getAddress() != null) {
-            foundUser.setAddress(updatedUser.getAddress());
+    /**
+     * Replaces the repeated fields of a user about to be stored with the shared instances of the dictionary.
+     *
+     * @param user - the user to store
+     */
+    private void share(User user) {
+        if (dictionary != null) {
+            dictionary.acquire(user);
         }
+    }
 
-        if (updatedUser.getPhoneNumber() != null) {
-            foundUser.setPhoneNumber(updatedUser.getPhoneNumber());
+    /**
+     * Releases the shared fields of a user that is no longer stored.
+     *
+     * @param user - the removed user or the previous state of an updated user
+     */
+    private void unshare(User user) {
+        if (dictionary != null) {
+            dictionary.release(user);
         }
+    }
+
+    /**
+     * Counts a new user in its block of IDs. Called before the user is stored, so a page never skips a stored user.
+     *
+     * @param id - the ID of the user
+     */
+    private void holdBlock(long id) {
+        liveBlocks.compute(block(id), (block, count) -> {
+            if (count == null) {
+                return new AtomicInteger(1);
+            }
+            count.incrementAndGet();
+            return count;
+        });
+    }
+
+    /**
+     * Stops counting a removed user in its block of IDs and drops the block once it holds no user.
+     *
+     * @param id - the ID of the user
+     */
+    private void releaseBlock(long id) {
+        liveBlocks.computeIfPresent(block(id), (block, count) -> count.decrementAndGet() == 0 ? null : count);
+    }
 
-        if (updatedUser.getBirthDate() != null) {
-            foundUser.setBirthDate(updatedUser.getBirthDate());
+    private static long block(long id) {
+        return (id >>> BLOCK_SHIFT) + 1;
+    }
+
+    private ReentrantLock writeLock(long id) {
+        return writeLocks[stripe(id)];
+    }
+
+    /**
+     * Takes the write locks of a batch of IDs in the order of the locks,
+     * so batches that share locks never wait for each other in a cycle.
+     *
+     * @param ids - the IDs of the batch
+     * @return the indexes of the taken locks
+     */
+    private BitSet lockStripes(LongStream ids) {
+        BitSet stripes = new BitSet(WRITE_LOCKS);
+        ids.forEach(id -> stripes.set(stripe(id)));
+        for (int stripe = stripes.nextSetBit(0); stripe >= 0; stripe = stripes.nextSetBit(stripe + 1)) {
+            writeLocks[stripe].lock();
         }
-        return foundUser;
+        return stripes;
+    }
+
+    private void unlockStripes(BitSet stripes) {
+        for (int stripe = stripes.nextSetBit(0); stripe >= 0; stripe = stripes.nextSetBit(stripe + 1)) {
+            writeLocks[stripe].unlock();
+        }
+    }
+
+    private static int stripe(long id) {
+        return (int) (id & (WRITE_LOCKS - 1));
+    }
+
+    /**
+     * The log position of the last change made by a storage call.
+     * Positions only grow, so waiting for the last one covers every change of the call.
+     */
+    private static final class LogPosition {
+        private long value;
     }
 }
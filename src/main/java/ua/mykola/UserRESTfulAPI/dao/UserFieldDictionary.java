@@ -0,0 +1,94 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares one instance of every distinct first name, last name, address and birth date among the stored users.
+ * <p>
+ * Users arrive with their own copies of these values, although across many users the same values repeat.
+ * A user is stored with the shared instances instead, and the copies it arrived with become garbage.
+ * Every shared value counts the stored users that refer to it and is dropped when the last one is
+ * deleted or updated to another value, so the dictionary only holds values that are in use.
+ * <p>
+ * Emails and phone numbers are nearly unique per user, so they are kept as they are.
+ */
+public class UserFieldDictionary {
+    private final Table<String> names = new Table<>();
+    private final Table<String> addresses = new Table<>();
+    private final Table<LocalDate> birthDates = new Table<>();
+
+    /**
+     * Replaces the repeating fields of a user about to be stored with their shared instances,
+     * counting the user as a reference to each of them.
+     *
+     * @param user - the user to store
+     */
+    void acquire(User user) {
+        user.setFirstName(names.acquire(user.getFirstName()));
+        user.setLastName(names.acquire(user.getLastName()));
+        user.setAddress(addresses.acquire(user.getAddress()));
+        user.setBirthDate(birthDates.acquire(user.getBirthDate()));
+    }
+
+    /**
+     * Releases the shared fields of a user that is no longer stored.
+     *
+     * @param user - the deleted user or the previous state of an updated user
+     */
+    void release(User user) {
+        names.release(user.getFirstName());
+        names.release(user.getLastName());
+        addresses.release(user.getAddress());
+        birthDates.release(user.getBirthDate());
+    }
+
+    /**
+     * Returns the number of distinct values held by the dictionary.
+     *
+     * @return the number of shared first and last names, addresses and birth dates
+     */
+    public int size() {
+        return names.entries.size() + addresses.entries.size() + birthDates.entries.size();
+    }
+
+    /**
+     * Shared values of one kind with their reference counts. A count only changes inside
+     * the atomic operation of the map on its value, so a value is never dropped while
+     * another user takes a reference to it.
+     */
+    private static final class Table<T> {
+        private final ConcurrentMap<T, Entry<T>> entries = new ConcurrentHashMap<>();
+
+        private T acquire(T value) {
+            if (value == null) {
+                return null;
+            }
+            return entries.compute(value, (key, entry) -> {
+                if (entry == null) {
+                    return new Entry<>(key);
+                }
+                entry.references++;
+                return entry;
+            }).value;
+        }
+
+        private void release(T value) {
+            if (value != null) {
+                entries.computeIfPresent(value, (key, entry) -> --entry.references == 0 ? null : entry);
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private int references = 1;
+
+        private Entry(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * The secondary indexes of a user storage.
+ * <p>
+ * A storage calls the mutating methods while it holds the per-id lock of the user,
+ * so the indexes never disagree with the stored record for long. Index lookups return
+ * ids that are resolved through the storage and re-checked against the current record,
+ * which filters out users changed between the lookup and the read.
+ */
+class UserIndexes {
+    private final EmailIndex emailIndex = new EmailIndex();
+    private final BirthDateIndex birthDateIndex = new BirthDateIndex();
+    private final NamePrefixIndex namePrefixIndex = new NamePrefixIndex();
+    private final AddressIndex addressIndex = new AddressIndex();
+
+    /**
+     * Reserves the email of a new user.
+     *
+     * @param user - the new user with an allocated ID
+     * @return true if the email was free, false if it belongs to another user
+     */
+    boolean reserveEmail(User user) {
+        return emailIndex.reserve(user.getEmail(), user.getId());
+    }
+
+    /**
+     * Adds a new user, whose email is already reserved, to the other indexes.
+     *
+     * @param user - the new user
+     */
+    void add(User user) {
+        birthDateIndex.add(user);
+        namePrefixIndex.add(user);
+        addressIndex.add(user);
+    }
+
+    /**
+     * Removes a user from all indexes and releases their email.
+     *
+     * @param user - the removed user
+     */
+    void remove(User user) {
+        emailIndex.release(user.getEmail(), user.getId());
+        birthDateIndex.remove(user);
+        namePrefixIndex.remove(user);
+        addressIndex.remove(user);
+    }
+
+    /**
+     * Moves a user within the indexes after an update.
+     *
+     * @param oldUser - the previous state of the user
+     * @param newUser - the new state of the user
+     */
+    void replace(User oldUser, User newUser) {
+        birthDateIndex.replace(oldUser, newUser);
+        namePrefixIndex.replace(oldUser, newUser);
+        addressIndex.replace(oldUser, newUser);
+    }
+
+    /**
+     * Finds a user by email, ignoring case.
+     *
+     * @param email - the email to look up
+     * @param loader - resolves an ID to the stored user, or null if it is gone
+     * @return an Optional containing the user, if found
+     */
+    Optional<User> findByEmail(String email, LongFunction<User> loader) {
+        Long id = emailIndex.find(email);
+        return id != null ? Optional.ofNullable(loader.apply(id)) : Optional.empty();
+    }
+
+    /**
+     * Finds users born strictly between two dates.
+     *
+     * @param from - the exclusive start date
+     * @param to - the exclusive end date
+     * @param loader - resolves an ID to the stored user, or null if it is gone
+     * @return the found users ordered by birth date
+     */
+    List<User> findByBirthDateRange(LocalDate from, LocalDate to, LongFunction<User> loader) {
+        List<User> foundUsers = new ArrayList<>();
+        for (Long id : birthDateIndex.findIds(from, to)) {
+            User user = loader.apply(id);
+            if (user != null && user.getBirthDate().isAfter(from) && user.getBirthDate().isBefore(to)) {
+                foundUsers.add(user);
+            }
+        }
+        return foundUsers;
+    }
+
+    /**
+     * Finds users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the name prefix
+     * @param limit - the maximum number of users to return
+     * @param loader - resolves an ID to the stored user, or null if it is gone
+     * @return the found users ordered by the matching name
+     */
+    List<User> findByNamePrefix(String namePrefix, int limit, LongFunction<User> loader) {
+        String prefix = namePrefix.toLowerCase(Locale.ROOT);
+        List<User> foundUsers = new ArrayList<>();
+        for (Long id : namePrefixIndex.findIds(namePrefix, limit)) {
+            User user = loader.apply(id);
+            if (user != null && (startsWith(user.getFirstName(), prefix) || startsWith(user.getLastName(), prefix))) {
+                foundUsers.add(user);
+            }
+        }
+        return foundUsers;
+    }
+
+    /**
+     * Finds users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for
+     * @param limit - the maximum number of users to return
+     * @param loader - resolves an ID to the stored user, or null if it is gone
+     * @return the found users ordered by ID
+     */
+    List<User> findByAddress(String query, int limit, LongFunction<User> loader) {
+        Set<String> queryTokens = AddressIndex.tokenize(query);
+        List<User> foundUsers = new ArrayList<>();
+        for (Long id : addressIndex.findIds(query, limit)) {
+            User user = loader.apply(id);
+            if (user != null && AddressIndex.tokenize(user.getAddress()).containsAll(queryTokens)) {
+                foundUsers.add(user);
+            }
+        }
+        return foundUsers;
+    }
+
+    private static boolean startsWith(String name, String prefix) {
+        return name != null && name.toLowerCase(Locale.ROOT).startsWith(prefix);
+    }
+}
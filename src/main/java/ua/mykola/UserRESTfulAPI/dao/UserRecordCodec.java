@@ -0,0 +1,113 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Binary layout of a user record stored outside the heap.
+ * <p>
+ * A record is the total length (int), the id (long), the version (long), the birth date as an epoch day (int)
+ * and the email, first name, last name, address and phone number, each as a length (int,
+ * -1 for null) followed by its UTF-8 bytes.
+ */
+final class UserRecordCodec {
+    private static final int NULL_LENGTH = -1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final int HEADER_LENGTH = Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private UserRecordCodec() {
+    }
+
+    /**
+     * Encodes a user into a record.
+     *
+     * @param user - the user to encode
+     * @return the record bytes
+     */
+    static byte[] encode(User user) {
+        byte[][] fields = {
+                utf8(user.getEmail()),
+                utf8(user.getFirstName()),
+                utf8(user.getLastName()),
+                utf8(user.getAddress()),
+                utf8(user.getPhoneNumber())
+        };
+        int length = HEADER_LENGTH;
+        for (byte[] field : fields) {
+            length += Integer.BYTES + (field != null ? field.length : 0);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length);
+        record.putLong(user.getId());
+        record.putLong(user.getVersion());
+        record.putInt(user.getBirthDate() != null ? Math.toIntExact(user.getBirthDate().toEpochDay()) : NULL_DATE);
+        for (byte[] field : fields) {
+            if (field == null) {
+                record.putInt(NULL_LENGTH);
+            } else {
+                record.putInt(field.length);
+                record.put(field);
+            }
+        }
+        return record.array();
+    }
+
+    /**
+     * Reads the length of the record stored at an offset.
+     *
+     * @param slab - the slab holding the record
+     * @param offset - the offset of the record
+     * @return the record length in bytes
+     */
+    static int length(ByteBuffer slab, int offset) {
+        return slab.getInt(offset);
+    }
+
+    /**
+     * Decodes the record stored at an offset into a new user.
+     *
+     * @param slab - the slab holding the record
+     * @param offset - the offset of the record
+     * @return the decoded user
+     */
+    static User decode(ByteBuffer slab, int offset) {
+        int position = offset + Integer.BYTES;
+        long id = slab.getLong(position);
+        position += Long.BYTES;
+        long version = slab.getLong(position);
+        position += Long.BYTES;
+        int epochDay = slab.getInt(position);
+        position += Integer.BYTES;
+
+        String[] fields = new String[5];
+        for (int i = 0; i < fields.length; i++) {
+            int length = slab.getInt(position);
+            position += Integer.BYTES;
+            if (length != NULL_LENGTH) {
+                byte[] bytes = new byte[length];
+                slab.get(position, bytes);
+                fields[i] = new String(bytes, StandardCharsets.UTF_8);
+                position += length;
+            }
+        }
+
+        return User.builder()
+                .id(id)
+                .version(version)
+                .birthDate(epochDay != NULL_DATE ? LocalDate.ofEpochDay(epochDay) : null)
+                .email(fields[0])
+                .firstName(fields[1])
+                .lastName(fields[2])
+                .address(fields[3])
+                .phoneNumber(fields[4])
+                .build();
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
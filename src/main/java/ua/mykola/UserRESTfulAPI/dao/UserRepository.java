@@ -1,7 +1,10 @@
 package ua.mykola.UserRESTfulAPI.dao;
 
 import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,13 +21,59 @@ public interface UserRepository {
     List<User> getAll();
 
     /**
-     * Saves a new user.
+     * Retrieves a page of users ordered by ID, starting after the given ID.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @return a list of at most limit users with IDs greater than afterId
+     */
+    List<User> getPage(long afterId, int limit);
+
+    /**
+     * Retrieves users whose birth dates fall strictly between two dates.
+     *
+     * @param from - the exclusive start date of the birth date range
+     * @param to - the exclusive end date of the birth date range
+     * @return a list of the found users ordered by birth date
+     */
+    List<User> getByBirthDateRange(LocalDate from, LocalDate to);
+
+    /**
+     * Retrieves users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return a list of at most limit users ordered by the matching name
+     */
+    List<User> searchByNamePrefix(String namePrefix, int limit);
+
+    /**
+     * Retrieves users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return a list of at most limit users ordered by ID
+     */
+    List<User> searchByAddress(String query, int limit);
+
+    /**
+     * Saves a new user. Emails are unique regardless of case.
      *
      * @param user - the user to save
      * @return the saved user
+     * @throws ConflictException if another user already has the same email
      */
     User save(User user);
 
+    /**
+     * Saves new users in one call. IDs are allocated as a single block.
+     *
+     * @param users - the users to save
+     * @return the saved users in the same order, with null for users
+     * whose email already belongs to another user
+     */
+    List<User> saveAll(List<User> users);
+
     /**
      * Retrieves a user by their ID.
      *
@@ -33,6 +82,14 @@ public interface UserRepository {
      */
     Optional<User> getById(long id);
 
+    /**
+     * Retrieves a user by their email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return an Optional containing the user, if found
+     */
+    Optional<User> getByEmail(String email);
+
     /**
      * Checks if a user with the specified ID exists.
      *
@@ -41,6 +98,13 @@ public interface UserRepository {
      */
     boolean isExist(long id);
 
+    /**
+     * Counts the stored users.
+     *
+     * @return the number of stored users
+     */
+    long count();
+
     /**
      * Deletes a user by their ID.
      *
@@ -49,10 +113,41 @@ public interface UserRepository {
     void delete(long id);
 
     /**
-     * Updates an existing user.
+     * Deletes users by their IDs. The existence check and the removal
+     * are a single atomic operation per user.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return the IDs of the users that existed and were deleted
+     */
+    List<Long> deleteAll(List<Long> ids);
+
+    /**
+     * Updates an existing user. Only the non-null fields of the updated user are applied,
+     * and the change is applied atomically for the record.
      *
      * @param updatedUser - the updated user
-     * @return the updated user
+     * @return the updated user, or null if the user does not exist
      */
     User update(User updatedUser);
+
+    /**
+     * Updates an existing user only if it still has the expected version. The version check
+     * and the change are a single atomic operation for the record, so of two concurrent
+     * updates expecting the same version only one succeeds.
+     *
+     * @param updatedUser - the updated user
+     * @param expectedVersion - the version the stored user must have
+     * @return the updated user, or null if the user does not exist
+     * @throws PreconditionFailedException if the stored user has another version
+     */
+    User update(User updatedUser, long expectedVersion);
+
+    /**
+     * Updates existing users. Every user is updated the same way as by {@link #update(User)},
+     * with the existence check and the change applied as a single atomic operation.
+     *
+     * @param updatedUsers - the updated users
+     * @return the updated users in the same order, with null for users that do not exist
+     */
+    List<User> updateAll(List<User> updatedUsers);
 }
@@ -0,0 +1,228 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshots of the users of a storage, kept in a local directory.
+ * <p>
+ * A snapshot file starts with a header: a magic number (int), the format version (int),
+ * the position of the last change log record the snapshot covers (long), the next free
+ * user ID (long) and the number of users (long). It is followed by blocks of about 1 MiB,
+ * each being its length (int), its CRC32 (int) and {@link UserRecordCodec} records.
+ * <p>
+ * A snapshot is written to a temporary file, forced to disk and then renamed, so a crash
+ * never leaves a partial snapshot behind. The rename is forced to disk with the directory
+ * before the older snapshots are deleted and the change log drops the records it covers. It is loaded through memory-mapped windows,
+ * which avoids copying the file through the Java heap.
+ */
+public class UserSnapshotStore {
+    private static final int MAGIC = 0x55534E50;
+    private static final int VERSION = 2;
+    private static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES + Long.BYTES;
+    private static final int BLOCK_HEADER_LENGTH = Integer.BYTES + Integer.BYTES;
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+    private static final String PREFIX = "users-";
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path directory;
+
+    /**
+     * The header of a loaded snapshot.
+     *
+     * @param logPosition - the position of the last change log record the snapshot covers
+     * @param nextId - the last ID allocated when the snapshot was taken
+     * @param userCount - the number of users in the snapshot
+     */
+    public record Snapshot(long logPosition, long nextId, long userCount) {
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0);
+    }
+
+    /**
+     * Creates a store for snapshots in a directory, creating it if it does not exist.
+     *
+     * @param directory - the directory of the snapshot files
+     */
+    public UserSnapshotStore(Path directory) {
+        this.directory = directory.toAbsolutePath();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create snapshot directory " + directory, ex);
+        }
+    }
+
+    /**
+     * Loads the newest snapshot.
+     *
+     * @param onUser - receives every user of the snapshot
+     * @return the header of the snapshot, or an empty header if there is no snapshot
+     */
+    public Snapshot load(Consumer<User> onUser) {
+        try {
+            List<Path> snapshots = snapshotFiles();
+            if (snapshots.isEmpty()) {
+                return Snapshot.EMPTY;
+            }
+            return load(snapshots.get(snapshots.size() - 1), onUser);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot load snapshot", ex);
+        }
+    }
+
+    /**
+     * Writes a new snapshot of the users with IDs from 1 to the last allocated one
+     * and deletes the older snapshots.
+     *
+     * @param logPosition - the position of the last change log record the snapshot covers
+     * @param nextId - the last allocated ID
+     * @param loader - resolves an ID to the stored user, or null if there is none
+     * @return the header of the written snapshot
+     */
+    public Snapshot write(long logPosition, long nextId, LongFunction<User> loader) {
+        Path target = directory.resolve(PREFIX + String.format("%019d", logPosition) + SUFFIX);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            long userCount = 0;
+            try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                file.position(HEADER_LENGTH);
+                ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+                block.position(BLOCK_HEADER_LENGTH);
+                for (long id = 1; id <= nextId; id++) {
+                    User user = loader.apply(id);
+                    if (user == null) {
+                        continue;
+                    }
+                    byte[] record = UserRecordCodec.encode(user);
+                    if (block.remaining() < record.length) {
+                        writeBlock(file, block);
+                        if (block.capacity() < BLOCK_HEADER_LENGTH + record.length) {
+                            block = ByteBuffer.allocate(BLOCK_HEADER_LENGTH + record.length);
+                        }
+                        block.position(BLOCK_HEADER_LENGTH);
+                    }
+                    block.put(record);
+                    userCount++;
+                }
+                writeBlock(file, block);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(logPosition)
+                        .putLong(nextId)
+                        .putLong(userCount)
+                        .flip();
+                file.write(header, 0);
+                file.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Directories.force(directory);
+
+            for (Path snapshot : snapshotFiles()) {
+                if (!snapshot.equals(target)) {
+                    Files.delete(snapshot);
+                }
+            }
+            return new Snapshot(logPosition, nextId, userCount);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write snapshot " + target, ex);
+        }
+    }
+
+    private Snapshot load(Path path, Consumer<User> onUser) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            if (size < HEADER_LENGTH) {
+                throw corrupt(path);
+            }
+            MappedByteBuffer header = file.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw corrupt(path);
+            }
+            Snapshot snapshot = new Snapshot(header.getLong(), header.getLong(), header.getLong());
+
+            CRC32 crc = new CRC32();
+            long loadedUsers = 0;
+            long offset = HEADER_LENGTH;
+            while (offset < size) {
+                MappedByteBuffer window = file.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, MAX_WINDOW_SIZE));
+                int position = 0;
+                while (position + BLOCK_HEADER_LENGTH <= window.limit()) {
+                    int blockLength = window.getInt(position);
+                    int blockStart = position + BLOCK_HEADER_LENGTH;
+                    if (blockLength < 0 || (long) blockStart + blockLength > window.limit()) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(window.slice(blockStart, blockLength));
+                    if ((int) crc.getValue() != window.getInt(position + Integer.BYTES)) {
+                        throw corrupt(path);
+                    }
+                    int recordOffset = blockStart;
+                    while (recordOffset < blockStart + blockLength) {
+                        onUser.accept(UserRecordCodec.decode(window, recordOffset));
+                        recordOffset += UserRecordCodec.length(window, recordOffset);
+                        loadedUsers++;
+                    }
+                    position = blockStart + blockLength;
+                }
+                if (position == 0) {
+                    throw corrupt(path);
+                }
+                offset += position;
+            }
+
+            if (loadedUsers != snapshot.userCount()) {
+                throw corrupt(path);
+            }
+            return snapshot;
+        }
+    }
+
+    private static void writeBlock(FileChannel file, ByteBuffer block) throws IOException {
+        int blockLength = block.position() - BLOCK_HEADER_LENGTH;
+        if (blockLength == 0) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(block.array(), BLOCK_HEADER_LENGTH, blockLength);
+        block.putInt(0, blockLength);
+        block.putInt(Integer.BYTES, (int) crc.getValue());
+        block.flip();
+        while (block.hasRemaining()) {
+            file.write(block);
+        }
+        block.clear();
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static IllegalStateException corrupt(Path path) {
+        return new IllegalStateException("Corrupt snapshot " + path);
+    }
+}
@@ -0,0 +1,500 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import ua.mykola.UserRESTfulAPI.entity.User;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link UserChangeLog} kept in local append-only files.
+ * <p>
+ * Appends only copy the record into an in-memory buffer. A single writer thread
+ * takes everything buffered so far, writes it with one call and, depending on the
+ * {@link FsyncPolicy}, forces it to disk with one fsync. Requests that arrive while
+ * an fsync is running are buffered and committed together by the next one, so under
+ * concurrent load the cost of an fsync is shared by many writes (group commit).
+ * The records of a batch are buffered together, so a batch is always committed by one of them.
+ * <p>
+ * A record is the payload length (int), the CRC32 of the rest of the record (int),
+ * the log position (long), the type (byte) and the payload: a {@link UserRecordCodec}
+ * record for a save or the user ID (long) for a delete. A torn or corrupt record at
+ * the end of the file, left by a crash in the middle of a write, is cut off on replay.
+ * <p>
+ * Records are appended to the active file at the configured path. When older changes
+ * are discarded, the active file is sealed under its name suffixed with the position of
+ * its last record, and sealed files that hold only discarded changes are deleted once
+ * the rename and the new active file are forced to disk with their directory.
+ */
+public class WriteAheadLog implements UserChangeLog, Closeable {
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES + Byte.BYTES;
+
+    /**
+     * When the log forces written records to disk.
+     */
+    public enum FsyncPolicy {
+        /**
+         * Every write waits until its record is forced to disk.
+         */
+        ALWAYS,
+        /**
+         * Records are forced to disk periodically; a crash loses at most one interval of writes.
+         */
+        INTERVAL,
+        /**
+         * Records are only handed to the operating system, which decides when to write them.
+         */
+        NEVER
+    }
+
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final Thread writer;
+    private FileChannel channel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition recordsAppended = lock.newCondition();
+    private final Condition recordsCommitted = lock.newCondition();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private ByteArrayOutputStream writing = new ByteArrayOutputStream();
+    private long appendedPosition;
+    private long committedPosition;
+    private long discardPosition;
+    private boolean rolloverRequested;
+    private long syncCount;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens the log, creating the active file if it does not exist.
+     *
+     * @param path - the path of the active log file
+     * @param fsyncPolicy - when written records are forced to disk
+     * @param fsyncIntervalMillis - the fsync period of {@link FsyncPolicy#INTERVAL}
+     */
+    public WriteAheadLog(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.path = path.toAbsolutePath();
+        try {
+            Files.createDirectories(this.path.getParent());
+            channel = openActiveFile();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open write-ahead log " + path, ex);
+        }
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        writer = new Thread(this::writeLoop, "user-wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void replay(long afterPosition, Consumer<User> onSave, LongConsumer onDelete) {
+        long lastPosition = afterPosition;
+        try {
+            for (Path segment : sealedSegments()) {
+                long segmentPosition = segmentPosition(segment);
+                if (segmentPosition > afterPosition) {
+                    try (FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                        ReplayedFile replayed = replayFile(segmentChannel, afterPosition, onSave, onDelete);
+                        if (replayed.validLength() != segmentChannel.size()) {
+                            throw new IllegalStateException("Corrupt write-ahead log segment " + segment);
+                        }
+                    }
+                }
+                lastPosition = Math.max(lastPosition, segmentPosition);
+            }
+
+            ReplayedFile replayed = replayFile(channel, afterPosition, onSave, onDelete);
+            channel.truncate(replayed.validLength());
+            channel.position(replayed.validLength());
+            lastPosition = Math.max(lastPosition, replayed.lastPosition());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot replay write-ahead log", ex);
+        }
+
+        lock.lock();
+        try {
+            appendedPosition = lastPosition;
+            committedPosition = lastPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long position() {
+        lock.lock();
+        try {
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fails once the writer thread has failed or the log is closed, as every append would.
+     */
+    @Override
+    public void checkWritable() {
+        lock.lock();
+        try {
+            checkOpen();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long appendSave(User user) {
+        return append(SAVE, List.of(UserRecordCodec.encode(user)));
+    }
+
+    @Override
+    public long appendDelete(long id) {
+        return append(DELETE, List.of(encodeId(id)));
+    }
+
+    /**
+     * Appends the new states of users as one group, which the writer thread takes at once,
+     * so the whole batch is written with one call and forced with one fsync.
+     */
+    @Override
+    public long appendSaves(List<User> users) {
+        List<byte[]> payloads = new ArrayList<>(users.size());
+        for (User user : users) {
+            payloads.add(UserRecordCodec.encode(user));
+        }
+        return append(SAVE, payloads);
+    }
+
+    @Override
+    public long appendDeletes(List<Long> ids) {
+        List<byte[]> payloads = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            payloads.add(encodeId(id));
+        }
+        return append(DELETE, payloads);
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (committedPosition < position) {
+                checkFailure();
+                recordsCommitted.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seals the active file and deletes the sealed files that hold only changes up to a position.
+     * The work is done by the writer thread; this method does not wait for it.
+     *
+     * @param position - the position of the last change that is no longer needed
+     */
+    @Override
+    public void discardThrough(long position) {
+        lock.lock();
+        try {
+            discardPosition = Math.max(discardPosition, position);
+            rolloverRequested = true;
+            recordsAppended.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of times the log was forced to disk.
+     *
+     * @return the number of fsync calls
+     */
+    public long syncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and forces the remaining records and closes the file.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            recordsAppended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+            channel.force(false);
+            channel.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot close write-ahead log", ex);
+        }
+    }
+
+    /**
+     * Reads the records of a log file, passing those after a position to the callbacks.
+     * Reading stops at the first incomplete or corrupt record.
+     */
+    private ReplayedFile replayFile(FileChannel file, long afterPosition, Consumer<User> onSave, LongConsumer onDelete)
+            throws IOException {
+        long validLength = 0;
+        long lastPosition = 0;
+        file.position(0);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file), 1 << 16));
+        CRC32 crc = new CRC32();
+        while (true) {
+            byte[] record;
+            try {
+                int payloadLength = input.readInt();
+                if (payloadLength < 0 || payloadLength > file.size()) {
+                    break;
+                }
+                int checksum = input.readInt();
+                record = new byte[Long.BYTES + Byte.BYTES + payloadLength];
+                input.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException ex) {
+                break;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            long position = buffer.getLong();
+            byte type = buffer.get();
+            if (type != SAVE && type != DELETE) {
+                break;
+            }
+            if (position > afterPosition) {
+                if (type == SAVE) {
+                    onSave.accept(UserRecordCodec.decode(buffer, buffer.position()));
+                } else {
+                    onDelete.accept(buffer.getLong());
+                }
+            }
+            lastPosition = position;
+            validLength += Integer.BYTES + Integer.BYTES + record.length;
+        }
+        return new ReplayedFile(validLength, lastPosition);
+    }
+
+    /**
+     * Appends records of one type under a single acquisition of the lock, so they are
+     * buffered together with consecutive positions.
+     *
+     * @param type - the type of the records
+     * @param payloads - the payloads of the records
+     * @return the log position of the last record, 0 if there are no payloads
+     */
+    private long append(byte type, List<byte[]> payloads) {
+        if (payloads.isEmpty()) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        lock.lock();
+        try {
+            checkOpen();
+            for (byte[] payload : payloads) {
+                ByteBuffer record = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+                record.putInt(payload.length);
+                record.putInt(0);
+                record.putLong(++appendedPosition).put(type).put(payload);
+                crc.reset();
+                crc.update(record.array(), Integer.BYTES + Integer.BYTES, record.capacity() - Integer.BYTES - Integer.BYTES);
+                record.putInt(Integer.BYTES, (int) crc.getValue());
+                pending.write(record.array(), 0, record.capacity());
+            }
+            recordsAppended.signal();
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] encodeId(long id) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+    }
+
+    private void writeLoop() {
+        long lastSync = System.nanoTime();
+        boolean unsynced = false;
+        while (true) {
+            long batchPosition;
+            long batchDiscardPosition;
+            boolean rollover;
+            ByteArrayOutputStream batch;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !rolloverRequested && !closed) {
+                    if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                        recordsAppended.awaitNanos(fsyncIntervalNanos);
+                        break;
+                    }
+                    recordsAppended.await();
+                }
+                if (pending.size() == 0 && closed) {
+                    return;
+                }
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                batchPosition = appendedPosition;
+                batchDiscardPosition = discardPosition;
+                rollover = rolloverRequested;
+                rolloverRequested = false;
+            } catch (InterruptedException ex) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            boolean synced = false;
+            try {
+                if (batch.size() > 0) {
+                    batch.writeTo(Channels.newOutputStream(channel));
+                    batch.reset();
+                    unsynced = true;
+                }
+                long now = System.nanoTime();
+                if (unsynced && (rollover || fsyncPolicy == FsyncPolicy.ALWAYS
+                        || fsyncPolicy == FsyncPolicy.INTERVAL && now - lastSync >= fsyncIntervalNanos)) {
+                    channel.force(false);
+                    lastSync = now;
+                    unsynced = false;
+                    synced = true;
+                }
+                if (rollover) {
+                    rollover(batchPosition, batchDiscardPosition);
+                }
+            } catch (IOException ex) {
+                lock.lock();
+                try {
+                    failure = ex;
+                    recordsCommitted.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                committedPosition = batchPosition;
+                if (synced) {
+                    syncCount++;
+                }
+                recordsCommitted.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Seals the forced active file, starts a new one and deletes the sealed files
+     * whose changes are all discarded.
+     *
+     * @param lastPosition - the position of the last record in the active file
+     * @param discardPosition - the position of the last discarded change
+     */
+    private void rollover(long lastPosition, long discardPosition) throws IOException {
+        if (channel.size() > 0) {
+            channel.close();
+            Files.move(path, segmentPath(lastPosition), StandardCopyOption.ATOMIC_MOVE);
+            channel = openActiveFile();
+        }
+        for (Path segment : sealedSegments()) {
+            if (segmentPosition(segment) <= discardPosition) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    /**
+     * Opens the active file, creating it if needed, and forces the directory, so the file
+     * and the rename of a sealed file before it are on disk before anything older is deleted.
+     */
+    private FileChannel openActiveFile() throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        file.position(file.size());
+        Directories.force(path.getParent());
+        return file;
+    }
+
+    private List<Path> sealedSegments() throws IOException {
+        String prefix = path.getFileName() + ".";
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> file.getFileName().toString().substring(prefix.length()).matches("\\d{19}"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long lastPosition) {
+        return path.resolveSibling(path.getFileName() + "." + String.format("%019d", lastPosition));
+    }
+
+    private static long segmentPosition(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    private void checkOpen() {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+    }
+
+    private record ReplayedFile(long validLength, long lastPosition) {
+    }
+}
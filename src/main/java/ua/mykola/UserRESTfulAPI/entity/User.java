@@ -1,20 +1,19 @@
 package ua.mykola.UserRESTfulAPI.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
-import lombok.AllArgsConstructor;
 
+import java.lang.ref.SoftReference;
 import java.time.LocalDate;
 
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
-@AllArgsConstructor
-@Builder
 public class User {
     private Long id;
 
@@ -29,4 +28,55 @@ public class User {
     private String address;
 
     private String phoneNumber;
+
+    private long version;
+
+    /**
+     * Read-only data built from this state of the user by the first read of a stored user and
+     * shared by the following reads. Not part of the state of the user, so it is left out of
+     * the constructor, the builder and {@link #toString()}. It is held softly, so the garbage
+     * collector drops it when the heap runs short, and the next read builds it again.
+     */
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile SoftReference<ReadView> readView;
+
+    @Builder
+    public User(Long id, String email, String firstName, String lastName, LocalDate birthDate,
+                String address, String phoneNumber, long version) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.birthDate = birthDate;
+        this.address = address;
+        this.phoneNumber = phoneNumber;
+        this.version = version;
+    }
+
+    /**
+     * Gets the read-only data kept for later reads of this state of the user.
+     *
+     * @return the read view, or null if none was built or it was dropped
+     */
+    public ReadView getReadView() {
+        SoftReference<ReadView> reference = readView;
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * Keeps read-only data for later reads of this state of the user, until the garbage collector needs the heap.
+     *
+     * @param readView - the read view
+     */
+    public void setReadView(ReadView readView) {
+        this.readView = new SoftReference<>(readView);
+    }
+
+    /**
+     * Read-only data derived from one state of a user, which a stored user keeps for later reads.
+     */
+    public interface ReadView {
+    }
 }
@@ -0,0 +1,32 @@
+package ua.mykola.UserRESTfulAPI.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Times every request to the user endpoints with an {@link EndpointMetricsInterceptor}.
+ * <p>
+ * The metrics are scraped from {@code /actuator/prometheus}. The generic
+ * {@code http.server.requests} observation of Spring Boot is turned off with
+ * {@code management.observations.enable.http.server.requests=false}, as it allocates
+ * an observation context for every request and these timers cover the same endpoints.
+ */
+@Configuration
+public class EndpointMetricsConfiguration implements WebMvcConfigurer {
+    private final MeterRegistry registry;
+    private final boolean virtualThreads;
+
+    public EndpointMetricsConfiguration(MeterRegistry registry,
+                                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.registry = registry;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new EndpointMetricsInterceptor(registry, virtualThreads)).addPathPatterns("/users", "/users/**");
+    }
+}
@@ -0,0 +1,107 @@
+package ua.mykola.UserRESTfulAPI.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every request per controller method in a {@code users.http.requests}
+ * timer tagged with the name of the method. The count of the timer gives the request rate.
+ * <p>
+ * A synchronous request starts and completes on the same thread, so its start time is kept in a
+ * thread-local slot. A pooled thread creates its slot once and reuses it for every request, so
+ * timing a request on it does not allocate. A virtual thread serves a single request, so with
+ * virtual threads the slot is removed when the request completes instead of staying with the
+ * thread; each request then allocates its slot, as it allocates its thread.
+ * <p>
+ * An asynchronous request, such as a stream, completes on another dispatch, so its start time is
+ * carried in a request attribute, which boxes it; it is measured up to the end of that dispatch.
+ * The timer of a method is created on its first request and then looked up without allocating.
+ */
+public class EndpointMetricsInterceptor implements AsyncHandlerInterceptor {
+    static final String TIMER_NAME = "users.http.requests";
+    private static final String START_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".start";
+    private static final ThreadLocal<long[]> START = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final boolean virtualThreads;
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an interceptor that registers its timers in a registry.
+     *
+     * @param registry - the registry of the timers
+     * @param virtualThreads - whether requests are served on virtual threads, so no slot is kept per thread
+     */
+    public EndpointMetricsInterceptor(MeterRegistry registry, boolean virtualThreads) {
+        this.registry = registry;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            long[] start = START.get();
+            if (start == null) {
+                start = new long[1];
+                START.set(start);
+            }
+            start[0] = System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long[] start = START.get();
+        if (start != null) {
+            request.setAttribute(START_ATTRIBUTE, start[0]);
+            releaseSlot();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        long start;
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long asyncStart)) {
+                return;
+            }
+            start = asyncStart;
+        } else {
+            long[] slot = START.get();
+            if (slot == null) {
+                return;
+            }
+            start = slot[0];
+            releaseSlot();
+        }
+        if (handler instanceof HandlerMethod handlerMethod) {
+            timer(handlerMethod.getMethod()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void releaseSlot() {
+        if (virtualThreads) {
+            START.remove();
+        }
+    }
+
+    private Timer timer(Method method) {
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, key -> LatencyTimers.register(registry, TIMER_NAME,
+                    "Latency of the requests to an endpoint", "endpoint", key.getName()));
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,36 @@
+package ua.mykola.UserRESTfulAPI.rest.caching;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.springframework.stereotype.Component;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+
+/**
+ * Jackson module that writes the user data of stored users as JSON kept with it. The JSON of a user
+ * is encoded by the first response holding it and copied as it is into every later response,
+ * a single user as well as an element of a list or a line of a stream. An update stores a new user
+ * with new user data, so the JSON of the previous version is never written again.
+ * Spring Boot registers the module with the object mapper of both web stacks.
+ */
+@Component
+public class EncodedUserJsonModule extends SimpleModule {
+
+    public EncodedUserJsonModule() {
+        super(EncodedUserJsonModule.class.getSimpleName());
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDescription,
+                                                      JsonSerializer<?> serializer) {
+                if (!UserDto.class.isAssignableFrom(beanDescription.getBeanClass())) {
+                    return serializer;
+                }
+                @SuppressWarnings("unchecked")
+                JsonSerializer<Object> beanSerializer = (JsonSerializer<Object>) serializer;
+                return new EncodedUserSerializer(beanSerializer);
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package ua.mykola.UserRESTfulAPI.rest.caching;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+
+import java.io.IOException;
+
+/**
+ * Writes the shared user data of a stored user as JSON encoded by its first serialization.
+ * Other user data, pretty-printed output and formats other than JSON are written by the bean serializer.
+ */
+class EncodedUserSerializer extends StdSerializer<UserDto> implements ResolvableSerializer, ContextualSerializer {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JsonSerializer<Object> delegate;
+
+    EncodedUserSerializer(JsonSerializer<Object> delegate) {
+        super(UserDto.class);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void serialize(UserDto userDto, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        EncodedJson json = userDto.getEncodedJson();
+        if (json == null || !(generator instanceof JsonGeneratorImpl) || generator.getPrettyPrinter() != null) {
+            delegate.serialize(userDto, generator, provider);
+            return;
+        }
+        if (json == EncodedJson.PENDING) {
+            json = encode(userDto, generator, provider);
+            userDto.setEncodedJson(json);
+        }
+        generator.writeRawValue(json);
+    }
+
+    private EncodedJson encode(UserDto userDto, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        ByteArrayBuilder bytes = new ByteArrayBuilder();
+        try (JsonGenerator encoder = JSON.createGenerator(bytes)) {
+            encoder.overrideStdFeatures(generator.getFeatureMask(), ~0);
+            delegate.serialize(userDto, encoder, provider);
+        }
+        return new EncodedJson(bytes.toByteArray());
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        if (delegate instanceof ContextualSerializer contextual) {
+            JsonSerializer<?> contextualDelegate = contextual.createContextual(provider, property);
+            if (contextualDelegate != delegate) {
+                return new EncodedUserSerializer((JsonSerializer<Object>) contextualDelegate);
+            }
+        }
+        return this;
+    }
+}
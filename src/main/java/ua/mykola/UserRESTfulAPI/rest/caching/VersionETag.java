@@ -0,0 +1,56 @@
+package ua.mykola.UserRESTfulAPI.rest.caching;
+
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+import ua.mykola.UserRESTfulAPI.exception.ValidationException;
+
+import java.util.OptionalLong;
+
+/**
+ * Strong ETags for versions of users and lists of users.
+ * Clients get the ETag in a response and pass it back unchanged in If-None-Match or If-Match.
+ */
+public final class VersionETag {
+    private static final String ANY = "*";
+    private static final String QUOTE = "\"";
+
+    private VersionETag() {
+    }
+
+    /**
+     * Encodes a version into an ETag.
+     *
+     * @param version - the version
+     * @return the quoted ETag
+     */
+    public static String encode(long version) {
+        return QUOTE + Long.toHexString(version) + QUOTE;
+    }
+
+    /**
+     * Decodes the If-Match header of a conditional update into the version the user must have.
+     * If-Match uses the strong comparison, so a weak ETag or an ETag that was not issued
+     * by this service never matches.
+     *
+     * @param ifMatch - the value of the If-Match header
+     * @return the expected version, or empty if any version matches
+     * @throws ValidationException if the header holds more than one ETag
+     * @throws PreconditionFailedException if the ETag can never match
+     */
+    public static OptionalLong decodeIfMatch(String ifMatch) {
+        String eTag = ifMatch.strip();
+        if (eTag.equals(ANY)) {
+            return OptionalLong.empty();
+        }
+        if (eTag.contains(",")) {
+            throw new ValidationException("If-Match must hold a single ETag");
+        }
+        if (eTag.length() > 2 && eTag.startsWith(QUOTE) && eTag.endsWith(QUOTE)) {
+            try {
+                return OptionalLong.of(Long.parseUnsignedLong(eTag.substring(1, eTag.length() - 1), 16));
+            } catch (NumberFormatException ex) {
+                // Not an ETag of this service, so it cannot match
+            }
+        }
+        throw new PreconditionFailedException("ETag " + eTag + " does not match the current version");
+    }
+}
@@ -0,0 +1,39 @@
+package ua.mykola.UserRESTfulAPI.rest.cbor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Jackson module that writes dates as the number of days since 1970-01-01, a CBOR integer
+ * of at most three bytes for any birth date, and reads them back from that number.
+ */
+class EpochDayModule extends SimpleModule {
+
+    EpochDayModule() {
+        super(EpochDayModule.class.getSimpleName());
+        addSerializer(LocalDate.class, new StdScalarSerializer<>(LocalDate.class) {
+            @Override
+            public void serialize(LocalDate date, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(date.toEpochDay());
+            }
+        });
+        addDeserializer(LocalDate.class, new StdScalarDeserializer<>(LocalDate.class) {
+            @Override
+            public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+                    return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+                }
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package ua.mykola.UserRESTfulAPI.rest.cbor;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes request and response bodies as CBOR ({@code application/cbor}) for clients that
+ * ask for it with Accept or send it as Content-Type; JSON stays the default. The fields are the same
+ * as in JSON, and dates are encoded as the number of days since 1970-01-01.
+ * <p>
+ * The object mapper is built from the one Spring Boot configures for JSON, so the
+ * {@code spring.jackson} properties apply to both formats.
+ */
+@Component
+@Profile("!reactive")
+public class UserCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    /**
+     * Creates the converter.
+     *
+     * @param objectMapperBuilder - a new builder of the JSON object mapper, switched to CBOR by this converter
+     */
+    public UserCborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        super(objectMapperBuilder
+                .factory(new CBORFactory())
+                .postConfigurer(objectMapper -> objectMapper.registerModule(new EpochDayModule()))
+                .build());
+    }
+}
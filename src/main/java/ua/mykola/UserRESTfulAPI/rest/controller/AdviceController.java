@@ -1,22 +1,49 @@
 package ua.mykola.UserRESTfulAPI.rest.controller;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import ua.mykola.UserRESTfulAPI.rest.response.ErrorMessage;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
 import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
 import ua.mykola.UserRESTfulAPI.exception.ValidationException;
 
 /**
  * Controller of exceptions.
+ * Every handler counts the exceptions it handles in a {@code users.http.errors} counter
+ * tagged with the name of the handler.
  */
 @ControllerAdvice
 public class AdviceController {
+    private final Counter underagePersonErrors;
+    private final Counter notFoundErrors;
+    private final Counter conflictErrors;
+    private final Counter preconditionFailedErrors;
+    private final Counter validationErrors;
+
+    public AdviceController(MeterRegistry registry) {
+        this.underagePersonErrors = errorCounter(registry, "underagePersonException");
+        this.notFoundErrors = errorCounter(registry, "notFoundException");
+        this.conflictErrors = errorCounter(registry, "conflictException");
+        this.preconditionFailedErrors = errorCounter(registry, "preconditionFailedException");
+        this.validationErrors = errorCounter(registry, "validationException");
+    }
+
+    private static Counter errorCounter(MeterRegistry registry, String handler) {
+        return Counter.builder("users.http.errors")
+                .description("Number of exceptions handled by an exception handler")
+                .tag("handler", handler)
+                .register(registry);
+    }
 
     @ExceptionHandler(value = UnderagePersonException.class)
     public ResponseEntity<ErrorMessage> underagePersonException(UnderagePersonException ex) {
+        underagePersonErrors.increment();
         return ResponseEntity
                 .badRequest()
                 .body(ErrorMessage.builder()
@@ -27,6 +54,7 @@ public class AdviceController {
 
     @ExceptionHandler(value = NotFoundException.class)
     public ResponseEntity<ErrorMessage> notFoundException(NotFoundException ex) {
+        notFoundErrors.increment();
         return ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
                 .body(ErrorMessage.builder()
@@ -35,8 +63,31 @@ public class AdviceController {
                         .build());
     }
 
+    @ExceptionHandler(value = ConflictException.class)
+    public ResponseEntity<ErrorMessage> conflictException(ConflictException ex) {
+        conflictErrors.increment();
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorMessage.builder()
+                        .status(HttpStatus.CONFLICT.value())
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(value = PreconditionFailedException.class)
+    public ResponseEntity<ErrorMessage> preconditionFailedException(PreconditionFailedException ex) {
+        preconditionFailedErrors.increment();
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(ErrorMessage.builder()
+                        .status(HttpStatus.PRECONDITION_FAILED.value())
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(value = ValidationException.class)
     public ResponseEntity<ErrorMessage> validationException(ValidationException ex) {
+        validationErrors.increment();
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(ErrorMessage.builder()
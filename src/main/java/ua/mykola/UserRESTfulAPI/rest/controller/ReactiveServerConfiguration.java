@@ -0,0 +1,23 @@
+package ua.mykola.UserRESTfulAPI.rest.controller;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Runs the {@code reactive} profile on Netty.
+ * <p>
+ * The profile sets {@code spring.main.web-application-type=reactive}. Tomcat stays on the
+ * classpath for the servlet stack and Spring Boot would prefer it for WebFlux too, so the
+ * Netty server factory is declared here to serve the reactive stack on an event loop.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,312 @@
+package ua.mykola.UserRESTfulAPI.rest.controller;
+
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+import ua.mykola.UserRESTfulAPI.exception.ValidationException;
+import ua.mykola.UserRESTfulAPI.rest.caching.VersionETag;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.pagination.IdCursor;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+import ua.mykola.UserRESTfulAPI.rest.validation.CreateValidation;
+import ua.mykola.UserRESTfulAPI.rest.validation.UpdateValidation;
+import ua.mykola.UserRESTfulAPI.service.ReactiveUserService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.LongPredicate;
+
+import static ua.mykola.UserRESTfulAPI.rest.controller.UserController.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Non-blocking controller for handling user-related HTTP requests on WebFlux.
+ * It serves the same routes with the same validation as {@link UserController}, and is
+ * enabled with the {@code reactive} profile instead of it.
+ * <p>
+ * Lists of all users and of a birth date range are written as they are read, to a JSON array
+ * or, with {@code Accept: application/x-ndjson}, one user per line. Users are only read as fast
+ * as the client takes them, so memory usage does not depend on the size of the list.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+    private final Validator validator;
+
+    /**
+     * Retrieves a list of users.
+     * Without parameters all users are streamed. With a limit or a cursor a single page
+     * ordered by ID is returned, and a Link header points to the next page when there may be one.
+     *
+     * @param limit - the maximum number of users in the page
+     * @param cursor - the opaque cursor taken from the previous page link
+     * @param exchange - the current exchange, used to build the next page link
+     * @return a ResponseEntity containing a stream of user data
+     * @throws ValidationException if the limit or the cursor is invalid
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<UserDto>>> getAll(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            ServerWebExchange exchange) {
+        if (limit == null && cursor == null) {
+            return Mono.just(ResponseEntity.ok(userService.getAll()));
+        }
+
+        int pageSize = limit != null ? limit : UserRequests.DEFAULT_PAGE_SIZE;
+        UserRequests.checkLimit(pageSize);
+        long afterId = cursor != null ? IdCursor.decode(cursor) : 0;
+        return userService.getPage(afterId, pageSize)
+                .collectList()
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.size() == pageSize) {
+                        String nextPage = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                                .replaceQueryParam("limit", pageSize)
+                                .replaceQueryParam("cursor", IdCursor.encode(page.get(page.size() - 1).getId()))
+                                .build()
+                                .toUriString();
+                        response.header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+                    }
+                    return response.body(Flux.fromIterable(page));
+                });
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON, one user per line.
+     *
+     * @return a stream of user data
+     */
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> stream() {
+        return userService.getAll();
+    }
+
+    /**
+     * Retrieves user information by ID.
+     * The response carries an ETag derived from the version of the user, and a request
+     * whose If-None-Match holds it gets 304 Not Modified without a body.
+     *
+     * @param id - the ID of the user to retrieve
+     * @param exchange - the current exchange, checked for If-None-Match
+     * @return a ResponseEntity containing the user data
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserDto>> getById(@PathVariable long id, ServerWebExchange exchange) {
+        return userService.getById(id, isKnownVersion(exchange))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
+    /**
+     * Retrieves user information by email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return a ResponseEntity containing the user data
+     */
+    @GetMapping("/by-email")
+    public Mono<ResponseEntity<UserDto>> getByEmail(@RequestParam("email") String email) {
+        return userService.getByEmail(email).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams users whose birth dates fall within a specified range.
+     *
+     * @param from - the start date of the birth date range
+     * @param to - the end date of the birth date range
+     * @return a stream of user data ordered by birth date
+     */
+    @GetMapping(value = "/birthdate-range", produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Flux<UserDto> getByBirthDateRange(
+            @RequestParam("from") @DateTimeFormat(pattern="yyyy-MM-dd") LocalDate from,
+            @RequestParam("to") @DateTimeFormat(pattern="yyyy-MM-dd") LocalDate to) {
+        return userService.getByBirthDateRange(from, to);
+    }
+
+    /**
+     * Searches for users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return user data ordered by the matching name
+     * @throws ValidationException if the prefix is blank or the limit is invalid
+     */
+    @GetMapping("/search")
+    public Flux<UserDto> searchByNamePrefix(
+            @RequestParam("namePrefix") String namePrefix,
+            @RequestParam(value = "limit", defaultValue = "" + UserRequests.DEFAULT_SEARCH_LIMIT) int limit) {
+        if (namePrefix.isBlank()) {
+            throw new ValidationException("Name prefix is required");
+        }
+        UserRequests.checkLimit(limit);
+        return userService.searchByNamePrefix(namePrefix.strip(), limit);
+    }
+
+    /**
+     * Searches for users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return user data ordered by ID
+     * @throws ValidationException if the query is blank or the limit is invalid
+     */
+    @GetMapping("/search/address")
+    public Flux<UserDto> searchByAddress(
+            @RequestParam("query") String query,
+            @RequestParam(value = "limit", defaultValue = "" + UserRequests.DEFAULT_SEARCH_LIMIT) int limit) {
+        if (query.isBlank()) {
+            throw new ValidationException("Address query is required");
+        }
+        UserRequests.checkLimit(limit);
+        return userService.searchByAddress(query, limit);
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @param userDto - the user data to register
+     * @return a ResponseEntity containing the saved user data
+     * @throws ValidationException if validation fails
+     */
+    @PostMapping
+    public Mono<ResponseEntity<UserDto>> register(@RequestBody UserDto userDto) {
+        checkValid(userDto, CreateValidation.class);
+        return userService.save(userDto)
+                .map(savedUser -> ResponseEntity.status(HttpStatus.CREATED).body(savedUser));
+    }
+
+    /**
+     * Registers new users in one request.
+     * Every user is validated and saved separately, so an invalid user does not fail the whole batch.
+     *
+     * @param userDtos - the user data to register
+     * @return a ResponseEntity containing a result for every user in request order
+     * @throws ValidationException if the batch is empty or too large
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> registerAll(@RequestBody List<UserDto> userDtos) {
+        UserRequests.ValidatedBatch batch = UserRequests.validateCreates(validator, userDtos);
+        return userService.saveAll(batch.validUsers())
+                .map(results -> ResponseEntity.status(HttpStatus.MULTI_STATUS).body(batch.merge(results)));
+    }
+
+    /**
+     * Updates user information by ID.
+     * With an If-Match header the user is only updated if its current ETag matches,
+     * otherwise 412 Precondition Failed is returned. The response carries the ETag of the new version.
+     *
+     * @param id - the ID of the user to update
+     * @param ifMatch - the ETag of the version the user must have, or null for an unconditional update
+     * @param userDto - the updated user data
+     * @return a ResponseEntity containing the updated user data
+     * @throws ValidationException if validation fails
+     * @throws PreconditionFailedException if the user has another version
+     */
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<UserDto>> update(@PathVariable("id") long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody UserDto userDto) {
+        checkValid(userDto, UpdateValidation.class);
+        OptionalLong expectedVersion = ifMatch != null ? VersionETag.decodeIfMatch(ifMatch) : OptionalLong.empty();
+        Mono<UserDto> updatedUser = expectedVersion.isPresent()
+                ? userService.update(id, userDto, expectedVersion.getAsLong())
+                : userService.update(id, userDto);
+        return updatedUser.map(user -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (user.getVersion() != null) {
+                response.eTag(VersionETag.encode(user.getVersion()));
+            }
+            return response.body(user);
+        });
+    }
+
+    /**
+     * Updates users in one request. Every user data must carry the ID of the user to update.
+     *
+     * @param userDtos - the updated user data
+     * @return a ResponseEntity containing a result for every user in request order
+     * @throws ValidationException if the batch is empty or too large
+     */
+    @PatchMapping("/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> updateAll(@RequestBody List<UserDto> userDtos) {
+        UserRequests.ValidatedBatch batch = UserRequests.validateUpdates(validator, userDtos);
+        return userService.updateAll(batch.validUsers())
+                .map(results -> ResponseEntity.status(HttpStatus.MULTI_STATUS).body(batch.merge(results)));
+    }
+
+    /**
+     * Deletes users by their IDs in one request.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return a ResponseEntity containing a result for every ID in request order
+     * @throws ValidationException if the batch is empty or too large
+     */
+    @DeleteMapping("/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> deleteAll(@RequestBody List<Long> ids) {
+        UserRequests.checkBatchSize(ids.size());
+        if (ids.contains(null)) {
+            throw new ValidationException("Id is required");
+        }
+        return userService.deleteAll(ids)
+                .map(results -> ResponseEntity.status(HttpStatus.MULTI_STATUS).body(results));
+    }
+
+    /**
+     * Deletes a user by ID.
+     *
+     * @param id - the ID of the user to delete
+     * @return a ResponseEntity indicating success
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> delete(@PathVariable("id") long id) {
+        return userService.delete(id).thenReturn(ResponseEntity.ok("User was deleted"));
+    }
+
+    /**
+     * Creates a check of a version against the If-None-Match header of a request,
+     * which also sets the ETag of the version on the response.
+     *
+     * @param exchange - the current exchange
+     * @return the check of a version
+     */
+    private static LongPredicate isKnownVersion(ServerWebExchange exchange) {
+        return version -> exchange.checkNotModified(VersionETag.encode(version));
+    }
+
+    /**
+     * Validates the body of a request against a validation group.
+     *
+     * @param userDto - the user data to validate
+     * @param group - the validation group
+     * @throws ValidationException if validation fails
+     */
+    private void checkValid(UserDto userDto, Class<?> group) {
+        String errorMessages = UserRequests.validate(validator, userDto, group);
+        if (errorMessages != null) {
+            throw new ValidationException(errorMessages);
+        }
+    }
+}
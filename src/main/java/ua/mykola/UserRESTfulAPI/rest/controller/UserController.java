@@ -1,8 +1,16 @@
 package ua.mykola.UserRESTfulAPI.rest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 
@@ -16,47 +24,166 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ua.mykola.UserRESTfulAPI.rest.caching.VersionETag;
+import ua.mykola.UserRESTfulAPI.rest.cbor.UserCborHttpMessageConverter;
 import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.pagination.IdCursor;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
 import ua.mykola.UserRESTfulAPI.rest.validation.CreateValidation;
 import ua.mykola.UserRESTfulAPI.rest.validation.UpdateValidation;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 import ua.mykola.UserRESTfulAPI.exception.ValidationException;
 import ua.mykola.UserRESTfulAPI.service.UserService;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 
 /**
  * Controller for handling user-related HTTP requests.
  * This controller provides endpoints for interacting with user data.
+ * Bodies are JSON by default and CBOR for clients that ask for it, see {@link UserCborHttpMessageConverter}.
+ * With the {@code reactive} profile the {@link ReactiveUserController} serves them instead.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final UserCborHttpMessageConverter cborConverter;
+    private final Validator validator;
 
     /**
-     * Retrieves a list of all users.
+     * Retrieves a list of users.
+     * Without parameters all users are returned. With a limit or a cursor a single page
+     * ordered by ID is returned, and a Link header points to the next page when there may be one.
+     * The response carries an ETag derived from the IDs and versions of the users, and a request
+     * whose If-None-Match holds it gets 304 Not Modified without a body.
      *
+     * @param limit - the maximum number of users in the page
+     * @param cursor - the opaque cursor taken from the previous page link
+     * @param request - the request, checked for If-None-Match
      * @return a ResponseEntity containing a list of user data
+     * @throws ValidationException if the limit or the cursor is invalid
      */
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAll() {
-        List<UserDto> obtainedUsers = userService.getAll();
-        return ResponseEntity.ok(obtainedUsers);
+    public ResponseEntity<List<UserDto>> getAll(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest request) {
+        if (limit == null && cursor == null) {
+            return userService.getAll(isKnownVersion(request))
+                    .map(ResponseEntity::ok)
+                    .orElseGet(UserController::notModified);
+        }
+
+        int pageSize = limit != null ? limit : UserRequests.DEFAULT_PAGE_SIZE;
+        UserRequests.checkLimit(pageSize);
+        long afterId = cursor != null ? IdCursor.decode(cursor) : 0;
+        Optional<List<UserDto>> modifiedPage = userService.getPage(afterId, pageSize, isKnownVersion(request));
+        if (modifiedPage.isEmpty()) {
+            return notModified();
+        }
+        List<UserDto> page = modifiedPage.get();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            String nextPage = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("limit", pageSize)
+                    .replaceQueryParam("cursor", IdCursor.encode(page.get(page.size() - 1).getId()))
+                    .build()
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON, one user per line, or as a CBOR sequence,
+     * one CBOR data item per user with nothing in between, if the Accept header asks for
+     * application/cbor-seq and not for application/x-ndjson.
+     * Users are read page by page and written straight to the response,
+     * so memory usage does not depend on the number of users.
+     * The same stream is served for GET /users with Accept: application/x-ndjson or application/cbor-seq.
+     *
+     * @param accept - the value of the Accept header, or null if there is none
+     * @return a ResponseEntity containing the streaming body
+     */
+    @GetMapping(value = {"/stream", ""},
+            produces = {APPLICATION_NDJSON_VALUE, UserCborHttpMessageConverter.APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (acceptsOnly(accept, UserCborHttpMessageConverter.APPLICATION_CBOR_SEQ_VALUE, APPLICATION_NDJSON_VALUE)) {
+            ObjectWriter writer = cborConverter.getObjectMapper().writerFor(UserDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            return streamAll(writer, "", UserCborHttpMessageConverter.APPLICATION_CBOR_SEQ_VALUE);
+        }
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        return streamAll(writer, "\n", APPLICATION_NDJSON_VALUE);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamAll(ObjectWriter writer, String separator, String contentType) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = writer.createGenerator(out)) {
+                long afterId = 0;
+                List<UserDto> page;
+                do {
+                    page = userService.getPage(afterId, UserRequests.MAX_PAGE_SIZE);
+                    for (UserDto user : page) {
+                        writer.writeValue(generator, user);
+                        if (!separator.isEmpty()) {
+                            generator.writeRaw(separator);
+                        }
+                        afterId = user.getId();
+                    }
+                    generator.flush();
+                } while (page.size() == UserRequests.MAX_PAGE_SIZE);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(body);
     }
 
     /**
      * Retrieves user information by ID.
+     * The response carries an ETag derived from the version of the user, and a request
+     * whose If-None-Match holds it gets 304 Not Modified without a body.
      *
      * @param id - the ID of the user to retrieve
+     * @param request - the request, checked for If-None-Match
      * @return a ResponseEntity containing the user data
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getById(@PathVariable long id) {
-        UserDto obtainedUser = userService.getById(id);
+    public ResponseEntity<UserDto> getById(@PathVariable long id, WebRequest request) {
+        return userService.getById(id, isKnownVersion(request))
+                .map(ResponseEntity::ok)
+                .orElseGet(UserController::notModified);
+    }
+
+    /**
+     * Retrieves user information by email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return a ResponseEntity containing the user data
+     */
+    @GetMapping("/by-email")
+    public ResponseEntity<UserDto> getByEmail(@RequestParam("email") String email) {
+        UserDto obtainedUser = userService.getByEmail(email);
         return ResponseEntity.ok(obtainedUser);
     }
 
@@ -75,6 +202,46 @@ public class UserController {
         return ResponseEntity.ok(obtainedUsers);
     }
 
+    /**
+     * Searches for users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return a ResponseEntity containing a list of user data ordered by the matching name
+     * @throws ValidationException if the prefix is blank or the limit is invalid
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDto>> searchByNamePrefix(
+            @RequestParam("namePrefix") String namePrefix,
+            @RequestParam(value = "limit", defaultValue = "" + UserRequests.DEFAULT_SEARCH_LIMIT) int limit) {
+        if (namePrefix.isBlank()) {
+            throw new ValidationException("Name prefix is required");
+        }
+        UserRequests.checkLimit(limit);
+        List<UserDto> obtainedUsers = userService.searchByNamePrefix(namePrefix.strip(), limit);
+        return ResponseEntity.ok(obtainedUsers);
+    }
+
+    /**
+     * Searches for users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return a ResponseEntity containing a list of user data ordered by ID
+     * @throws ValidationException if the query is blank or the limit is invalid
+     */
+    @GetMapping("/search/address")
+    public ResponseEntity<List<UserDto>> searchByAddress(
+            @RequestParam("query") String query,
+            @RequestParam(value = "limit", defaultValue = "" + UserRequests.DEFAULT_SEARCH_LIMIT) int limit) {
+        if (query.isBlank()) {
+            throw new ValidationException("Address query is required");
+        }
+        UserRequests.checkLimit(limit);
+        List<UserDto> obtainedUsers = userService.searchByAddress(query, limit);
+        return ResponseEntity.ok(obtainedUsers);
+    }
+
     /**
      * Registers a new user.
      *
@@ -100,17 +267,39 @@ public class UserController {
                 .body(savedUser);
     }
 
+    /**
+     * Registers new users in one request.
+     * Every user is validated and saved separately, so an invalid user does not fail the whole batch.
+     *
+     * @param userDtos - the user data to register
+     * @return a ResponseEntity containing a result for every user in request order
+     * @throws ValidationException if the batch is empty or too large
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> registerAll(@RequestBody List<UserDto> userDtos) {
+        UserRequests.ValidatedBatch batch = UserRequests.validateCreates(validator, userDtos);
+        List<BatchItemResult> results = batch.merge(userService.saveAll(batch.validUsers()));
+        return ResponseEntity
+                .status(HttpStatus.MULTI_STATUS)
+                .body(results);
+    }
+
     /**
      * Updates user information by ID.
+     * With an If-Match header the user is only updated if its current ETag matches,
+     * otherwise 412 Precondition Failed is returned. The response carries the ETag of the new version.
      *
      * @param id - the ID of the user to update
+     * @param ifMatch - the ETag of the version the user must have, or null for an unconditional update
      * @param userDto - the updated user data
      * @param bindingResult - the result of the validation
      * @return a ResponseEntity containing the updated user data
      * @throws ValidationException if validation fails
+     * @throws PreconditionFailedException if the user has another version
      */
     @PatchMapping("/{id}")
     public ResponseEntity<UserDto> update(@PathVariable("id") long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Validated(UpdateValidation.class) @RequestBody UserDto userDto,
             BindingResult bindingResult) {
 
@@ -121,8 +310,51 @@ public class UserController {
             throw new ValidationException(errorMessages);
         }
 
-        UserDto updatedUser = userService.update(id, userDto);
-        return ResponseEntity.ok(updatedUser);
+        OptionalLong expectedVersion = ifMatch != null ? VersionETag.decodeIfMatch(ifMatch) : OptionalLong.empty();
+        UserDto updatedUser = expectedVersion.isPresent()
+                ? userService.update(id, userDto, expectedVersion.getAsLong())
+                : userService.update(id, userDto);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (updatedUser.getVersion() != null) {
+            response.eTag(VersionETag.encode(updatedUser.getVersion()));
+        }
+        return response.body(updatedUser);
+    }
+
+    /**
+     * Updates users in one request. Every user data must carry the ID of the user to update.
+     * Every user is validated and updated separately, so a failed update does not fail the whole batch.
+     *
+     * @param userDtos - the updated user data
+     * @return a ResponseEntity containing a result for every user in request order
+     * @throws ValidationException if the batch is empty or too large
+     */
+    @PatchMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateAll(@RequestBody List<UserDto> userDtos) {
+        UserRequests.ValidatedBatch batch = UserRequests.validateUpdates(validator, userDtos);
+        List<BatchItemResult> results = batch.merge(userService.updateAll(batch.validUsers()));
+        return ResponseEntity
+                .status(HttpStatus.MULTI_STATUS)
+                .body(results);
+    }
+
+    /**
+     * Deletes users by their IDs in one request.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return a ResponseEntity containing a result for every ID in request order
+     * @throws ValidationException if the batch is empty or too large
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteAll(@RequestBody List<Long> ids) {
+        UserRequests.checkBatchSize(ids.size());
+        if (ids.contains(null)) {
+            throw new ValidationException("Id is required");
+        }
+        List<BatchItemResult> results = userService.deleteAll(ids);
+        return ResponseEntity
+                .status(HttpStatus.MULTI_STATUS)
+                .body(results);
     }
 
     /**
@@ -136,4 +368,46 @@ public class UserController {
         userService.delete(id);
         return ResponseEntity.ok("User was deleted");
     }
+
+    /**
+     * Checks if an Accept header names a media type and does not name another one.
+     * Wildcards name neither.
+     *
+     * @param accept - the value of the Accept header, or null if there is none
+     * @param wanted - the media type that must be named
+     * @param other - the media type that must not be named
+     * @return true if only the wanted media type is named
+     */
+    private static boolean acceptsOnly(String accept, String wanted, String other) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType wantedType = MediaType.parseMediaType(wanted);
+        MediaType otherType = MediaType.parseMediaType(other);
+        return mediaTypes.stream().anyMatch(wantedType::equalsTypeAndSubtype)
+                && mediaTypes.stream().noneMatch(otherType::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Creates a check of a version against the If-None-Match header of a request.
+     * The check also sets the ETag of the version on the response, and marks the
+     * response as not modified if the header matches it.
+     *
+     * @param request - the current request
+     * @return the check of a version
+     */
+    private static LongPredicate isKnownVersion(WebRequest request) {
+        return version -> request.checkNotModified(VersionETag.encode(version));
+    }
+
+    /**
+     * Creates a response for a client that already holds the current version.
+     *
+     * @param <T> - the type of the body that is left out
+     * @return a 304 Not Modified response without a body
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
 }
@@ -0,0 +1,171 @@
+package ua.mykola.UserRESTfulAPI.rest.controller;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import ua.mykola.UserRESTfulAPI.exception.ValidationException;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+import ua.mykola.UserRESTfulAPI.rest.validation.CreateValidation;
+import ua.mykola.UserRESTfulAPI.rest.validation.UpdateValidation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Limits and checks of the requests to the user endpoints, shared by
+ * {@link UserController} and {@link ReactiveUserController}.
+ */
+final class UserRequests {
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private UserRequests() {
+    }
+
+    /**
+     * Checks that a page or search limit is within bounds.
+     *
+     * @param limit - the requested limit
+     * @throws ValidationException if the limit is out of bounds
+     */
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Checks that a batch is neither empty nor too large.
+     *
+     * @param size - the number of items in the batch
+     * @throws ValidationException if the batch size is out of bounds
+     */
+    static void checkBatchSize(int size) {
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    /**
+     * Validates user data against a validation group.
+     *
+     * @param validator - the validator of the constraints
+     * @param userDto - the user data to validate
+     * @param group - the validation group
+     * @return the joined error messages, or null if the user data is valid
+     */
+    static String validate(Validator validator, UserDto userDto, Class<?> group) {
+        if (userDto == null) {
+            return "User is required";
+        }
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto, group);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Validates every item of a batch of new users.
+     *
+     * @param validator - the validator of the constraints
+     * @param userDtos - the user data to register
+     * @return the batch with the valid users
+     * @throws ValidationException if the batch is empty or too large
+     */
+    static ValidatedBatch validateCreates(Validator validator, List<UserDto> userDtos) {
+        checkBatchSize(userDtos.size());
+        ValidatedBatch batch = new ValidatedBatch(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            String errorMessages = validate(validator, userDtos.get(i), CreateValidation.class);
+            if (errorMessages != null) {
+                batch.results[i] = BatchItemResult.builder()
+                        .index(i)
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message(errorMessages)
+                        .build();
+            } else {
+                batch.add(i, userDtos.get(i));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Validates every item of a batch of user changes, each of which must carry an ID.
+     *
+     * @param validator - the validator of the constraints
+     * @param userDtos - the updated user data
+     * @return the batch with the valid changes
+     * @throws ValidationException if the batch is empty or too large
+     */
+    static ValidatedBatch validateUpdates(Validator validator, List<UserDto> userDtos) {
+        checkBatchSize(userDtos.size());
+        ValidatedBatch batch = new ValidatedBatch(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            String errorMessages = validate(validator, userDtos.get(i), UpdateValidation.class);
+            if (errorMessages == null && userDtos.get(i).getId() == null) {
+                errorMessages = "Id is required";
+            }
+            if (errorMessages != null) {
+                batch.results[i] = BatchItemResult.builder()
+                        .index(i)
+                        .id(userDtos.get(i) != null ? userDtos.get(i).getId() : null)
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message(errorMessages)
+                        .build();
+            } else {
+                batch.add(i, userDtos.get(i));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * A batch split into the valid items, which go to the service, and the results of the
+     * invalid ones. The results of the service are merged back in request order.
+     */
+    static final class ValidatedBatch {
+        private final BatchItemResult[] results;
+        private final List<UserDto> validUsers = new ArrayList<>();
+        private final List<Integer> validIndexes = new ArrayList<>();
+
+        private ValidatedBatch(int size) {
+            this.results = new BatchItemResult[size];
+        }
+
+        private void add(int index, UserDto userDto) {
+            validUsers.add(userDto);
+            validIndexes.add(index);
+        }
+
+        List<UserDto> validUsers() {
+            return validUsers;
+        }
+
+        /**
+         * Merges the results of the valid items into the results of the batch.
+         *
+         * @param serviceResults - the results of the valid items in the order of {@link #validUsers()}
+         * @return a result for every item in request order
+         */
+        List<BatchItemResult> merge(List<BatchItemResult> serviceResults) {
+            for (int i = 0; i < serviceResults.size(); i++) {
+                BatchItemResult result = serviceResults.get(i);
+                result.setIndex(validIndexes.get(i));
+                results[result.getIndex()] = result;
+            }
+            return Arrays.asList(results);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package ua.mykola.UserRESTfulAPI.rest.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import ua.mykola.UserRESTfulAPI.rest.caching.EncodedJson;
 import ua.mykola.UserRESTfulAPI.rest.validation.CreateValidation;
 import ua.mykola.UserRESTfulAPI.rest.validation.UpdateValidation;
 import ua.mykola.UserRESTfulAPI.entity.User;
@@ -22,7 +24,7 @@ import java.time.LocalDate;
 @ToString
 @EqualsAndHashCode
 @Builder
-public class UserDto {
+public class UserDto implements User.ReadView {
     private Long id;
 
     @NotBlank(groups = CreateValidation.class, message = "Email is required")
@@ -51,6 +53,16 @@ public class UserDto {
 
     private String phoneNumber;
 
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * The JSON of shared user data, or null for user data that is written anew by every serialization.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile EncodedJson encodedJson;
 
     public User toEntity() {
         return User.builder()
@@ -64,6 +76,25 @@ public class UserDto {
                 .build();
     }
 
+    /**
+     * Returns the user data of a stored user. It is built by the first call for this state of the user
+     * and kept with it, so later reads of the same state map nothing, and its JSON is encoded once by
+     * the first response holding it. Stored users are never modified, so the user data and its JSON
+     * stay current. The user data is shared by every caller, so its setters throw
+     * {@link UnsupportedOperationException}; {@link #fromEntity(User)} builds user data to modify.
+     *
+     * @param user - the stored user
+     * @return the shared user data of the user
+     */
+    public static UserDto fromStoredEntity(User user) {
+        if (user.getReadView() instanceof UserDto userDto) {
+            return userDto;
+        }
+        UserDto userDto = new SharedUserDto(user);
+        user.setReadView(userDto);
+        return userDto;
+    }
+
     public static UserDto fromEntity(User user) {
         return UserDto.builder()
                 .id(user.getId())
@@ -73,6 +104,63 @@ public class UserDto {
                 .address(user.getAddress())
                 .email(user.getEmail())
                 .phoneNumber(user.getPhoneNumber())
+                .version(user.getVersion())
                 .build();
     }
+
+    /**
+     * User data shared by every read of one state of a stored user. Only the JSON that the first
+     * serialization encodes can be set; every other change fails.
+     */
+    private static final class SharedUserDto extends UserDto {
+
+        private SharedUserDto(User user) {
+            super(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getBirthDate(),
+                    user.getAddress(), user.getPhoneNumber(), user.getVersion(), EncodedJson.PENDING);
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setEmail(String email) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setFirstName(String firstName) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setLastName(String lastName) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setBirthDate(LocalDate birthDate) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setAddress(String address) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setPhoneNumber(String phoneNumber) {
+            throw sharedDataModified();
+        }
+
+        @Override
+        public void setVersion(Long version) {
+            throw sharedDataModified();
+        }
+
+        private static UnsupportedOperationException sharedDataModified() {
+            return new UnsupportedOperationException("User data shared by reads of a stored user must not be modified");
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package ua.mykola.UserRESTfulAPI.rest.pagination;
+
+import ua.mykola.UserRESTfulAPI.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination over user IDs.
+ * Clients get the cursor in the next-page link and pass it back unchanged.
+ */
+public final class IdCursor {
+    private static final String PREFIX = "id:";
+
+    private IdCursor() {
+    }
+
+    /**
+     * Encodes the ID of the last user of a page into a cursor.
+     *
+     * @param lastId - the ID of the last user of the page
+     * @return the opaque cursor
+     */
+    public static String encode(long lastId) {
+        byte[] value = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    /**
+     * Decodes a cursor back into the ID after which the next page starts.
+     *
+     * @param cursor - the opaque cursor
+     * @return the ID after which the next page starts
+     * @throws ValidationException if the cursor is malformed
+     */
+    public static long decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new ValidationException("Invalid cursor");
+            }
+            long lastId = Long.parseLong(value.substring(PREFIX.length()));
+            if (lastId < 0) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return lastId;
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
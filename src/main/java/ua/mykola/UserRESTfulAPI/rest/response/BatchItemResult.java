@@ -0,0 +1,23 @@
+package ua.mykola.UserRESTfulAPI.rest.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+
+/**
+ * This class is used for entity response to report the outcome
+ * of a single item of a batch operation.
+ */
+@Builder
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private int index;
+    private Long id;
+    private int status;
+    private String message;
+    private UserDto user;
+}
@@ -0,0 +1,240 @@
+package ua.mykola.UserRESTfulAPI.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ua.mykola.UserRESTfulAPI.metrics.LatencyTimers;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * Records the latency of every call to another user service in a {@code users.service} timer
+ * tagged with the name of the method. Overloads of a method share its timer.
+ * <p>
+ * All timers are registered up front, so a call only reads the clock twice and records the
+ * difference, without allocating. Calls that throw are timed as well.
+ */
+public class MeteredUserService implements UserService {
+    static final String TIMER_NAME = "users.service";
+
+    private final UserService delegate;
+    private final Timer saveTimer;
+    private final Timer saveAllTimer;
+    private final Timer getAllTimer;
+    private final Timer getPageTimer;
+    private final Timer getByIdTimer;
+    private final Timer getByEmailTimer;
+    private final Timer getByBirthDateRangeTimer;
+    private final Timer searchByNamePrefixTimer;
+    private final Timer searchByAddressTimer;
+    private final Timer updateTimer;
+    private final Timer updateAllTimer;
+    private final Timer deleteTimer;
+    private final Timer deleteAllTimer;
+
+    /**
+     * Creates a service that times the calls to another service.
+     *
+     * @param delegate - the service that handles the calls
+     * @param registry - the registry of the timers
+     */
+    public MeteredUserService(UserService delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.saveTimer = timer(registry, "save");
+        this.saveAllTimer = timer(registry, "saveAll");
+        this.getAllTimer = timer(registry, "getAll");
+        this.getPageTimer = timer(registry, "getPage");
+        this.getByIdTimer = timer(registry, "getById");
+        this.getByEmailTimer = timer(registry, "getByEmail");
+        this.getByBirthDateRangeTimer = timer(registry, "getByBirthDateRange");
+        this.searchByNamePrefixTimer = timer(registry, "searchByNamePrefix");
+        this.searchByAddressTimer = timer(registry, "searchByAddress");
+        this.updateTimer = timer(registry, "update");
+        this.updateAllTimer = timer(registry, "updateAll");
+        this.deleteTimer = timer(registry, "delete");
+        this.deleteAllTimer = timer(registry, "deleteAll");
+    }
+
+    private static Timer timer(MeterRegistry registry, String method) {
+        return LatencyTimers.register(registry, TIMER_NAME, "Latency of the calls to a user service method", "method", method);
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public UserDto save(UserDto userDto) {
+        long start = System.nanoTime();
+        try {
+            return delegate.save(userDto);
+        } finally {
+            record(saveTimer, start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> saveAll(List<UserDto> userDtos) {
+        long start = System.nanoTime();
+        try {
+            return delegate.saveAll(userDtos);
+        } finally {
+            record(saveAllTimer, start);
+        }
+    }
+
+    @Override
+    public List<UserDto> getAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAll();
+        } finally {
+            record(getAllTimer, start);
+        }
+    }
+
+    @Override
+    public Optional<List<UserDto>> getAll(LongPredicate isKnownVersion) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAll(isKnownVersion);
+        } finally {
+            record(getAllTimer, start);
+        }
+    }
+
+    @Override
+    public List<UserDto> getPage(long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPage(afterId, limit);
+        } finally {
+            record(getPageTimer, start);
+        }
+    }
+
+    @Override
+    public Optional<List<UserDto>> getPage(long afterId, int limit, LongPredicate isKnownVersion) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPage(afterId, limit, isKnownVersion);
+        } finally {
+            record(getPageTimer, start);
+        }
+    }
+
+    @Override
+    public UserDto getById(Long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getById(id);
+        } finally {
+            record(getByIdTimer, start);
+        }
+    }
+
+    @Override
+    public Optional<UserDto> getById(long id, LongPredicate isKnownVersion) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getById(id, isKnownVersion);
+        } finally {
+            record(getByIdTimer, start);
+        }
+    }
+
+    @Override
+    public UserDto getByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getByEmail(email);
+        } finally {
+            record(getByEmailTimer, start);
+        }
+    }
+
+    @Override
+    public List<UserDto> getByBirthDateRange(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getByBirthDateRange(from, to);
+        } finally {
+            record(getByBirthDateRangeTimer, start);
+        }
+    }
+
+    @Override
+    public List<UserDto> searchByNamePrefix(String namePrefix, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.searchByNamePrefix(namePrefix, limit);
+        } finally {
+            record(searchByNamePrefixTimer, start);
+        }
+    }
+
+    @Override
+    public List<UserDto> searchByAddress(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.searchByAddress(query, limit);
+        } finally {
+            record(searchByAddressTimer, start);
+        }
+    }
+
+    @Override
+    public UserDto update(long id, UserDto updatedUser) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(id, updatedUser);
+        } finally {
+            record(updateTimer, start);
+        }
+    }
+
+    @Override
+    public UserDto update(long id, UserDto userDto, long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(id, userDto, expectedVersion);
+        } finally {
+            record(updateTimer, start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> updateAll(List<UserDto> userDtos) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateAll(userDtos);
+        } finally {
+            record(updateAllTimer, start);
+        }
+    }
+
+    @Override
+    public void delete(long id) {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+        } finally {
+            record(deleteTimer, start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> deleteAll(List<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            record(deleteAllTimer, start);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ua.mykola.UserRESTfulAPI.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Non-blocking User Service. It follows the same rules as {@link UserService},
+ * and signals its exceptions as errors of the returned publishers.
+ */
+public interface ReactiveUserService {
+
+    /**
+     * Saves a new user with the provided user data.
+     *
+     * @param userDto - the user data to save
+     * @return the saved user data with new ID, or an {@link UnderagePersonException}
+     * or {@link ConflictException} error
+     */
+    Mono<UserDto> save(UserDto userDto);
+
+    /**
+     * Saves new users in one call. Every user is checked separately,
+     * so an invalid user does not prevent the others from being saved.
+     *
+     * @param userDtos - the user data to save
+     * @return a result for every user in the same order
+     */
+    Mono<List<BatchItemResult>> saveAll(List<UserDto> userDtos);
+
+    /**
+     * Streams all users ordered by ID, reading them as the subscriber requests them.
+     *
+     * @return a stream of user data for all users
+     */
+    Flux<UserDto> getAll();
+
+    /**
+     * Retrieves a page of users ordered by ID, starting after the given ID.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @return user data for at most limit users
+     */
+    Flux<UserDto> getPage(long afterId, int limit);
+
+    /**
+     * Retrieves user information by their ID unless the caller already holds its current version.
+     *
+     * @param id - the ID of the user to retrieve
+     * @param isKnownVersion - tells whether the caller already holds a version of the user
+     * @return the found user, empty if the caller holds its current version,
+     * or a {@link NotFoundException} error
+     */
+    Mono<UserDto> getById(long id, LongPredicate isKnownVersion);
+
+    /**
+     * Retrieves user information by their email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return the found user, or a {@link NotFoundException} error
+     */
+    Mono<UserDto> getByEmail(String email);
+
+    /**
+     * Streams users whose birth dates fall within the specified range.
+     *
+     * @param from - the start date of the birth date range
+     * @param to - the end date of the birth date range
+     * @return a stream of users ordered by birth date
+     */
+    Flux<UserDto> getByBirthDateRange(LocalDate from, LocalDate to);
+
+    /**
+     * Searches for users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return at most limit users ordered by the matching name
+     */
+    Flux<UserDto> searchByNamePrefix(String namePrefix, int limit);
+
+    /**
+     * Searches for users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return at most limit users ordered by ID
+     */
+    Flux<UserDto> searchByAddress(String query, int limit);
+
+    /**
+     * Updates user information by their ID with the provided user data.
+     *
+     * @param id - the ID of the user to update
+     * @param userDto - the updated user data
+     * @return the updated user data, or a {@link NotFoundException} or {@link UnderagePersonException} error
+     */
+    Mono<UserDto> update(long id, UserDto userDto);
+
+    /**
+     * Updates user information by their ID only if the user still has the expected version.
+     *
+     * @param id - the ID of the user to update
+     * @param userDto - the updated user data
+     * @param expectedVersion - the version the user must have
+     * @return the updated user data, or a {@link NotFoundException}, {@link UnderagePersonException}
+     * or {@link PreconditionFailedException} error
+     */
+    Mono<UserDto> update(long id, UserDto userDto, long expectedVersion);
+
+    /**
+     * Updates users in one call. Every user data must carry the ID of the user to update.
+     *
+     * @param userDtos - the updated user data
+     * @return a result for every user in the same order
+     */
+    Mono<List<BatchItemResult>> updateAll(List<UserDto> userDtos);
+
+    /**
+     * Deletes a user by their ID.
+     *
+     * @param id - the ID of the user to delete
+     * @return completes when the user is deleted, or a {@link NotFoundException} error
+     */
+    Mono<Void> delete(long id);
+
+    /**
+     * Deletes users by their IDs in one call.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return a result for every ID in the same order
+     */
+    Mono<List<BatchItemResult>> deleteAll(List<Long> ids);
+}
@@ -0,0 +1,117 @@
+package ua.mykola.UserRESTfulAPI.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ua.mykola.UserRESTfulAPI.dao.ReactiveUserRepository;
+import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Implementation of the non-blocking User Service. The checks and batch results are shared
+ * with {@link UserServiceImpl}, so both services answer the same way.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+    private final ReactiveUserRepository userStorage;
+
+    @Override
+    public Mono<UserDto> save(UserDto userDto) {
+        return Mono.defer(() -> {
+            UserServiceImpl.isUnderagePerson(userDto.getBirthDate());
+            return userStorage.save(userDto.toEntity());
+        }).map(UserDto::fromEntity);
+    }
+
+    @Override
+    public Mono<List<BatchItemResult>> saveAll(List<UserDto> userDtos) {
+        return Mono.defer(() -> {
+            UserBatch batch = UserBatch.forSave(userDtos);
+            return userStorage.saveAll(batch.users()).map(batch::toSaveResults);
+        });
+    }
+
+    @Override
+    public Flux<UserDto> getAll() {
+        return userStorage.getAll().map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Flux<UserDto> getPage(long afterId, int limit) {
+        return userStorage.getPage(afterId, limit).map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Mono<UserDto> getById(long id, LongPredicate isKnownVersion) {
+        return userStorage.getById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User by id:" + id + " was not found")))
+                .filter(user -> !isKnownVersion.test(user.getVersion()))
+                .map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Mono<UserDto> getByEmail(String email) {
+        return userStorage.getByEmail(email)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User by email:" + email + " was not found")))
+                .map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Flux<UserDto> getByBirthDateRange(LocalDate from, LocalDate to) {
+        return userStorage.getByBirthDateRange(from, to).map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Flux<UserDto> searchByNamePrefix(String namePrefix, int limit) {
+        return userStorage.searchByNamePrefix(namePrefix, limit).map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Flux<UserDto> searchByAddress(String query, int limit) {
+        return userStorage.searchByAddress(query, limit).map(UserDto::fromStoredEntity);
+    }
+
+    @Override
+    public Mono<UserDto> update(long id, UserDto userDto) {
+        return Mono.defer(() -> userStorage.update(UserServiceImpl.toChanges(id, userDto)))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User by id:" + id + " was not found")))
+                .map(UserDto::fromEntity);
+    }
+
+    @Override
+    public Mono<UserDto> update(long id, UserDto userDto, long expectedVersion) {
+        return Mono.defer(() -> userStorage.update(UserServiceImpl.toChanges(id, userDto), expectedVersion))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User by id:" + id + " was not found")))
+                .map(UserDto::fromEntity);
+    }
+
+    @Override
+    public Mono<List<BatchItemResult>> updateAll(List<UserDto> userDtos) {
+        return Mono.defer(() -> {
+            UserBatch batch = UserBatch.forUpdate(userDtos);
+            return userStorage.updateAll(batch.users()).map(batch::toUpdateResults);
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(long id) {
+        return userStorage.isExist(id)
+                .flatMap(exists -> exists
+                        ? userStorage.delete(id)
+                        : Mono.error(new NotFoundException("User by id:" + id + " was not found")));
+    }
+
+    @Override
+    public Mono<List<BatchItemResult>> deleteAll(List<Long> ids) {
+        return userStorage.deleteAll(ids).map(deletedIds -> UserBatch.toDeleteResults(ids, deletedIds));
+    }
+}
@@ -0,0 +1,31 @@
+package ua.mykola.UserRESTfulAPI.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ua.mykola.UserRESTfulAPI.dao.UserRepository;
+
+/**
+ * Times the calls to the {@link UserServiceImpl} with a {@link MeteredUserService}, which is the
+ * primary service, so the controller uses it. Also publishes the number of stored users as the
+ * {@code users.stored} gauge, read from the repository on every scrape.
+ */
+@Configuration
+public class ServiceMetricsConfiguration {
+
+    @Bean
+    @Primary
+    public MeteredUserService meteredUserService(UserServiceImpl userServiceImpl, MeterRegistry registry) {
+        return new MeteredUserService(userServiceImpl, registry);
+    }
+
+    @Bean
+    public MeterBinder storedUsersMetrics(UserRepository userRepository) {
+        return registry -> Gauge.builder("users.stored", userRepository, UserRepository::count)
+                .description("Number of stored users")
+                .register(registry);
+    }
+}
@@ -0,0 +1,185 @@
+package ua.mykola.UserRESTfulAPI.service;
+
+import org.springframework.http.HttpStatus;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A batch of user data split into the users that passed the checks of the service and
+ * the results of the items that did not. The users are passed to the storage in one call,
+ * and the users it returns are merged back into the results in request order.
+ * <p>
+ * Shared by {@link UserServiceImpl} and {@link ReactiveUserServiceImpl}, which only differ
+ * in how they call the storage.
+ */
+final class UserBatch {
+    private final BatchItemResult[] results;
+    private final List<User> users = new ArrayList<>();
+    private final List<Integer> indexes = new ArrayList<>();
+
+    private UserBatch(int size) {
+        this.results = new BatchItemResult[size];
+    }
+
+    /**
+     * Checks new users before they are saved. A user without a birth date cannot be checked
+     * for its age, so it gets a result of its own instead of failing the batch.
+     *
+     * @param userDtos - the user data to save
+     * @return the batch with the users to save
+     */
+    static UserBatch forSave(List<UserDto> userDtos) {
+        UserBatch batch = new UserBatch(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            if (userDto.getBirthDate() == null) {
+                batch.results[i] = BatchItemResult.builder()
+                        .index(i)
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message("Birth date is required")
+                        .build();
+                continue;
+            }
+            try {
+                UserServiceImpl.isUnderagePerson(userDto.getBirthDate());
+                batch.users.add(userDto.toEntity());
+                batch.indexes.add(i);
+            } catch (UnderagePersonException ex) {
+                batch.results[i] = BatchItemResult.builder()
+                        .index(i)
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message(ex.getMessage())
+                        .build();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Checks changes of users before they are applied.
+     *
+     * @param userDtos - the updated user data, every one with the ID of the user to update
+     * @return the batch with the changes to apply
+     */
+    static UserBatch forUpdate(List<UserDto> userDtos) {
+        UserBatch batch = new UserBatch(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            try {
+                if (userDto.getBirthDate() != null) {
+                    UserServiceImpl.isUnderagePerson(userDto.getBirthDate());
+                }
+                batch.users.add(userDto.toEntity());
+                batch.indexes.add(i);
+            } catch (UnderagePersonException ex) {
+                batch.results[i] = BatchItemResult.builder()
+                        .index(i)
+                        .id(userDto.getId())
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message(ex.getMessage())
+                        .build();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Gets the users that passed the checks.
+     *
+     * @return the users to pass to the storage
+     */
+    List<User> users() {
+        return users;
+    }
+
+    /**
+     * Merges the users saved by the storage into the results.
+     *
+     * @param savedUsers - the saved users in the order of {@link #users()}, with null for taken emails
+     * @return a result for every item in request order
+     */
+    List<BatchItemResult> toSaveResults(List<User> savedUsers) {
+        for (int i = 0; i < savedUsers.size(); i++) {
+            int index = indexes.get(i);
+            User savedUser = savedUsers.get(i);
+            results[index] = savedUser != null
+                    ? BatchItemResult.builder()
+                            .index(index)
+                            .id(savedUser.getId())
+                            .status(HttpStatus.CREATED.value())
+                            .user(UserDto.fromEntity(savedUser))
+                            .build()
+                    : BatchItemResult.builder()
+                            .index(index)
+                            .status(HttpStatus.CONFLICT.value())
+                            .message("User with email:" + users.get(i).getEmail() + " already exists")
+                            .build();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Merges the users updated by the storage into the results.
+     *
+     * @param updatedUsers - the updated users in the order of {@link #users()}, with null for missing users
+     * @return a result for every item in request order
+     */
+    List<BatchItemResult> toUpdateResults(List<User> updatedUsers) {
+        for (int i = 0; i < updatedUsers.size(); i++) {
+            int index = indexes.get(i);
+            long id = users.get(i).getId();
+            User updatedUser = updatedUsers.get(i);
+            results[index] = updatedUser != null
+                    ? BatchItemResult.builder()
+                            .index(index)
+                            .id(id)
+                            .status(HttpStatus.OK.value())
+                            .user(UserDto.fromEntity(updatedUser))
+                            .build()
+                    : BatchItemResult.builder()
+                            .index(index)
+                            .id(id)
+                            .status(HttpStatus.NOT_FOUND.value())
+                            .message("User by id:" + id + " was not found")
+                            .build();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Builds the results of a batch delete.
+     *
+     * @param ids - the IDs to delete in request order
+     * @param deletedIds - the IDs the storage deleted
+     * @return a result for every ID in request order
+     */
+    static List<BatchItemResult> toDeleteResults(List<Long> ids, List<Long> deletedIds) {
+        Set<Long> remainingIds = new HashSet<>(deletedIds);
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(remainingIds.remove(id)
+                    ? BatchItemResult.builder()
+                            .index(i)
+                            .id(id)
+                            .status(HttpStatus.OK.value())
+                            .message("User was deleted")
+                            .build()
+                    : BatchItemResult.builder()
+                            .index(i)
+                            .id(id)
+                            .status(HttpStatus.NOT_FOUND.value())
+                            .message("User by id:" + id + " was not found")
+                            .build());
+        }
+        return results;
+    }
+}
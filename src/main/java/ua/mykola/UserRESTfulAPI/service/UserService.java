@@ -1,11 +1,16 @@
 package ua.mykola.UserRESTfulAPI.service;
 
 import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
 import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongPredicate;
 
 /**
  * User Service.
@@ -18,9 +23,20 @@ public interface UserService {
      * @param userDto - the user data to save
      * @return the saved user data with new ID
      * @throws UnderagePersonException if the new user is under 18 years old
+     * @throws ConflictException if another user already has the same email
      */
     UserDto save(UserDto userDto);
 
+    /**
+     * Saves new users in one call. Every user is checked separately,
+     * so an invalid user does not prevent the others from being saved.
+     *
+     * @param userDtos - the user data to save
+     * @return a result for every user in the same order, with the saved user data
+     * or the reason why the user was rejected
+     */
+    List<BatchItemResult> saveAll(List<UserDto> userDtos);
+
     /**
      * Retrieves a list of all users.
      *
@@ -28,6 +44,35 @@ public interface UserService {
      */
     List<UserDto> getAll();
 
+    /**
+     * Retrieves a list of all users unless the caller already holds the current version of it.
+     * The version of a list is derived from the IDs and versions of its users,
+     * and the users are only mapped to user data if the version is not known.
+     *
+     * @param isKnownVersion - tells whether the caller already holds a version of the list
+     * @return a list containing user data for all users, or empty if the caller holds its current version
+     */
+    Optional<List<UserDto>> getAll(LongPredicate isKnownVersion);
+
+    /**
+     * Retrieves a page of users ordered by ID, starting after the given ID.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @return a list containing user data for at most limit users
+     */
+    List<UserDto> getPage(long afterId, int limit);
+
+    /**
+     * Retrieves a page of users ordered by ID unless the caller already holds the current version of it.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @param isKnownVersion - tells whether the caller already holds a version of the page
+     * @return a list containing user data for at most limit users, or empty if the caller holds its current version
+     */
+    Optional<List<UserDto>> getPage(long afterId, int limit, LongPredicate isKnownVersion);
+
     /**
      * Retrieves user information by their ID.
      *
@@ -37,6 +82,26 @@ public interface UserService {
      */
     UserDto getById(Long id);
 
+    /**
+     * Retrieves user information by their ID unless the caller already holds its current version.
+     * The user is only mapped to user data if its version is not known.
+     *
+     * @param id - the ID of the user to retrieve
+     * @param isKnownVersion - tells whether the caller already holds a version of the user
+     * @return the found user, or empty if the caller holds its current version
+     * @throws NotFoundException if the user with the specified ID does not exist
+     */
+    Optional<UserDto> getById(long id, LongPredicate isKnownVersion);
+
+    /**
+     * Retrieves user information by their email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return the found user
+     * @throws NotFoundException if no user has the specified email
+     */
+    UserDto getByEmail(String email);
+
     /**
      * Retrieves a list of users whose birth dates fall within the specified range.
      *
@@ -46,6 +111,24 @@ public interface UserService {
      */
     List<UserDto> getByBirthDateRange(LocalDate from, LocalDate to);
 
+    /**
+     * Searches for users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return a list of at most limit users ordered by the matching name
+     */
+    List<UserDto> searchByNamePrefix(String namePrefix, int limit);
+
+    /**
+     * Searches for users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return a list of at most limit users ordered by ID
+     */
+    List<UserDto> searchByAddress(String query, int limit);
+
     /**
      * Updates user information by their ID with the provided user data.
      *
@@ -57,6 +140,30 @@ public interface UserService {
      */
     UserDto update(long id, UserDto updatedUser);
 
+    /**
+     * Updates user information by their ID only if the user still has the expected version.
+     * The version check and the update are a single atomic operation.
+     *
+     * @param id - the ID of the user to update
+     * @param userDto - the updated user data
+     * @param expectedVersion - the version the user must have
+     * @return the updated userDto
+     * @throws NotFoundException if the user does not exist
+     * @throws UnderagePersonException if the updated user's birth date makes them under 18 years old
+     * @throws PreconditionFailedException if the user has another version
+     */
+    UserDto update(long id, UserDto userDto, long expectedVersion);
+
+    /**
+     * Updates users in one call. Every user data must carry the ID of the user to update,
+     * and every user is checked separately, so a failed update does not affect the others.
+     *
+     * @param userDtos - the updated user data
+     * @return a result for every user in the same order, with the updated user data
+     * or the reason why the update failed
+     */
+    List<BatchItemResult> updateAll(List<UserDto> userDtos);
+
     /**
      * Deletes a user by their ID.
      *
@@ -64,4 +171,13 @@ public interface UserService {
      * @throws NotFoundException if the user does not exist
      */
     void delete(long id);
+
+
+    /**
+     * Deletes users by their IDs in one call.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return a result for every ID in the same order
+     */
+    List<BatchItemResult> deleteAll(List<Long> ids);
 }
@@ -3,17 +3,25 @@ package ua.mykola.UserRESTfulAPI.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
 import ua.mykola.UserRESTfulAPI.dao.UserRepository;
 import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
 import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.LongPredicate;
 
 /**
  * Implementation of User Service.
+ * <p>
+ * Reads map users with {@link UserDto#fromStoredEntity(User)}, so a user read again
+ * in the same state is served with the user data built by the first read.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,6 +34,7 @@ public class UserServiceImpl implements UserService{
      * @param userDto - the user data to save
      * @return the saved user data with new ID
      * @throws UnderagePersonException if the new user is under 18 years old
+     * @throws ConflictException if another user already has the same email
      */
     @Override
     public UserDto save(UserDto userDto) {
@@ -34,6 +43,20 @@ public class UserServiceImpl implements UserService{
         return UserDto.fromEntity(savedUser);
     }
 
+    /**
+     * Saves new users in one call. Every user is checked separately,
+     * so an invalid user does not prevent the others from being saved.
+     *
+     * @param userDtos - the user data to save
+     * @return a result for every user in the same order, with the saved user data
+     * or the reason why the user was rejected
+     */
+    @Override
+    public List<BatchItemResult> saveAll(List<UserDto> userDtos) {
+        UserBatch batch = UserBatch.forSave(userDtos);
+        return batch.toSaveResults(userStorage.saveAll(batch.users()));
+    }
+
     /**
      * Retrieves a list of all users.
      *
@@ -41,10 +64,45 @@ public class UserServiceImpl implements UserService{
      */
     @Override
     public List<UserDto> getAll() {
-        List<User> obtainedUsers = userStorage.getAll();
-        return obtainedUsers.stream()
-                .map(user -> UserDto.fromEntity(user))
-                .collect(Collectors.toList());
+        return toUserDtos(userStorage.getAll());
+    }
+
+    /**
+     * Retrieves a list of all users unless the caller already holds the current version of it.
+     * The version of a list is derived from the IDs and versions of its users,
+     * and the users are only mapped to user data if the version is not known.
+     *
+     * @param isKnownVersion - tells whether the caller already holds a version of the list
+     * @return a list containing user data for all users, or empty if the caller holds its current version
+     */
+    @Override
+    public Optional<List<UserDto>> getAll(LongPredicate isKnownVersion) {
+        return toUserDtosIfModified(userStorage.getAll(), isKnownVersion);
+    }
+
+    /**
+     * Retrieves a page of users ordered by ID, starting after the given ID.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @return a list containing user data for at most limit users
+     */
+    @Override
+    public List<UserDto> getPage(long afterId, int limit) {
+        return toUserDtos(userStorage.getPage(afterId, limit));
+    }
+
+    /**
+     * Retrieves a page of users ordered by ID unless the caller already holds the current version of it.
+     *
+     * @param afterId - the ID after which the page starts, 0 for the first page
+     * @param limit - the maximum number of users in the page
+     * @param isKnownVersion - tells whether the caller already holds a version of the page
+     * @return a list containing user data for at most limit users, or empty if the caller holds its current version
+     */
+    @Override
+    public Optional<List<UserDto>> getPage(long afterId, int limit, LongPredicate isKnownVersion) {
+        return toUserDtosIfModified(userStorage.getPage(afterId, limit), isKnownVersion);
     }
 
     /**
@@ -58,7 +116,40 @@ public class UserServiceImpl implements UserService{
     public UserDto getById(Long id) {
         User foundUser = userStorage.getById(id)
                 .orElseThrow(() -> new NotFoundException("User by id:" + id + " was not found"));
-        return UserDto.fromEntity(foundUser);
+        return UserDto.fromStoredEntity(foundUser);
+    }
+
+    /**
+     * Retrieves user information by their ID unless the caller already holds its current version.
+     * The user is only mapped to user data if its version is not known.
+     *
+     * @param id - the ID of the user to retrieve
+     * @param isKnownVersion - tells whether the caller already holds a version of the user
+     * @return the found user, or empty if the caller holds its current version
+     * @throws NotFoundException if the user with the specified ID does not exist
+     */
+    @Override
+    public Optional<UserDto> getById(long id, LongPredicate isKnownVersion) {
+        User foundUser = userStorage.getById(id)
+                .orElseThrow(() -> new NotFoundException("User by id:" + id + " was not found"));
+        if (isKnownVersion.test(foundUser.getVersion())) {
+            return Optional.empty();
+        }
+        return Optional.of(UserDto.fromStoredEntity(foundUser));
+    }
+
+    /**
+     * Retrieves user information by their email, ignoring case.
+     *
+     * @param email - the email of the user to retrieve
+     * @return the found user
+     * @throws NotFoundException if no user has the specified email
+     */
+    @Override
+    public UserDto getByEmail(String email) {
+        User foundUser = userStorage.getByEmail(email)
+                .orElseThrow(() -> new NotFoundException("User by email:" + email + " was not found"));
+        return UserDto.fromStoredEntity(foundUser);
     }
 
     /**
@@ -70,16 +161,36 @@ public class UserServiceImpl implements UserService{
      */
     @Override
     public List<UserDto> getByBirthDateRange(LocalDate from, LocalDate to) {
-        return userStorage.getAll()
-                .stream()
-                .filter(user -> user.getBirthDate().isAfter(from)
-                        && user.getBirthDate().isBefore(to))
-                .map(user -> UserDto.fromEntity(user))
-                .collect(Collectors.toList());
+        return toUserDtos(userStorage.getByBirthDateRange(from, to));
+    }
+
+    /**
+     * Searches for users whose first or last name starts with a prefix, ignoring case.
+     *
+     * @param namePrefix - the prefix of the first or last name
+     * @param limit - the maximum number of users to return
+     * @return a list of at most limit users ordered by the matching name
+     */
+    @Override
+    public List<UserDto> searchByNamePrefix(String namePrefix, int limit) {
+        return toUserDtos(userStorage.searchByNamePrefix(namePrefix, limit));
+    }
+
+    /**
+     * Searches for users whose address contains every word of a query, ignoring case.
+     *
+     * @param query - the words to look for in the address
+     * @param limit - the maximum number of users to return
+     * @return a list of at most limit users ordered by ID
+     */
+    @Override
+    public List<UserDto> searchByAddress(String query, int limit) {
+        return toUserDtos(userStorage.searchByAddress(query, limit));
     }
 
     /**
      * Updates user information by their ID with the provided user data.
+     * The existence check and the update are a single atomic operation of the storage.
      *
      * @param id - the ID of the user to update
      * @param userDto - the updated user data
@@ -89,14 +200,40 @@ public class UserServiceImpl implements UserService{
      */
     @Override
     public UserDto update(long id, UserDto userDto) {
-        isUserExist(id);
-        if (userDto.getBirthDate() != null) {
-            isUnderagePerson(userDto.getBirthDate());
-        }
-        User updatedUser = userDto.toEntity();
-        updatedUser.setId(id);
-        updatedUser = userStorage.update(updatedUser);
-        return UserDto.fromEntity(updatedUser);
+        User updatedUser = userStorage.update(toChanges(id, userDto));
+        return toUpdatedUserDto(id, updatedUser);
+    }
+
+    /**
+     * Updates user information by their ID only if the user still has the expected version.
+     * The version check and the update are a single atomic operation of the storage.
+     *
+     * @param id - the ID of the user to update
+     * @param userDto - the updated user data
+     * @param expectedVersion - the version the user must have
+     * @return the updated userDto
+     * @throws NotFoundException if the user does not exist
+     * @throws UnderagePersonException if the updated user is under 18 years old
+     * @throws PreconditionFailedException if the user has another version
+     */
+    @Override
+    public UserDto update(long id, UserDto userDto, long expectedVersion) {
+        User updatedUser = userStorage.update(toChanges(id, userDto), expectedVersion);
+        return toUpdatedUserDto(id, updatedUser);
+    }
+
+    /**
+     * Updates users in one call. Every user data must carry the ID of the user to update,
+     * and every user is checked separately, so a failed update does not affect the others.
+     *
+     * @param userDtos - the updated user data
+     * @return a result for every user in the same order, with the updated user data
+     * or the reason why the update failed
+     */
+    @Override
+    public List<BatchItemResult> updateAll(List<UserDto> userDtos) {
+        UserBatch batch = UserBatch.forUpdate(userDtos);
+        return batch.toUpdateResults(userStorage.updateAll(batch.users()));
     }
 
     /**
@@ -111,6 +248,105 @@ public class UserServiceImpl implements UserService{
         userStorage.delete(id);
     }
 
+    /**
+     * Deletes users by their IDs in one call.
+     *
+     * @param ids - the IDs of the users to delete
+     * @return a result for every ID in the same order
+     */
+    @Override
+    public List<BatchItemResult> deleteAll(List<Long> ids) {
+        return UserBatch.toDeleteResults(ids, userStorage.deleteAll(ids));
+    }
+
+    /**
+     * Checks the updated user data and turns it into the changes of the user with the ID.
+     *
+     * @param id - the ID of the user to update
+     * @param userDto - the updated user data
+     * @return the changes to apply
+     * @throws UnderagePersonException if the updated user is under 18 years old
+     */
+    static User toChanges(long id, UserDto userDto) {
+        if (userDto.getBirthDate() != null) {
+            isUnderagePerson(userDto.getBirthDate());
+        }
+        User changes = userDto.toEntity();
+        changes.setId(id);
+        return changes;
+    }
+
+    /**
+     * Maps the result of an update to user data.
+     *
+     * @param id - the ID of the updated user
+     * @param updatedUser - the updated user, or null if the user does not exist
+     * @return the updated user data
+     * @throws NotFoundException if the user does not exist
+     */
+    static UserDto toUpdatedUserDto(long id, User updatedUser) {
+        if (updatedUser == null) {
+            throw new NotFoundException("User by id:" + id + " was not found");
+        }
+        return UserDto.fromEntity(updatedUser);
+    }
+
+    /**
+     * Maps stored users to their user data.
+     *
+     * @param users - the stored users
+     * @return the user data in the same order
+     */
+    private static List<UserDto> toUserDtos(List<User> users) {
+        List<UserDto> userDtos = new ArrayList<>(users.size());
+        for (User user : users) {
+            userDtos.add(UserDto.fromStoredEntity(user));
+        }
+        return userDtos;
+    }
+
+    /**
+     * Maps users to user data unless the caller already holds the current version of the list.
+     *
+     * @param users - the users of the list
+     * @param isKnownVersion - tells whether the caller already holds a version of the list
+     * @return the user data, or empty if the caller holds the current version
+     */
+    private static Optional<List<UserDto>> toUserDtosIfModified(List<User> users, LongPredicate isKnownVersion) {
+        if (isKnownVersion.test(versionOf(users))) {
+            return Optional.empty();
+        }
+        return Optional.of(toUserDtos(users));
+    }
+
+    /**
+     * Derives the version of a list of users from their IDs and versions.
+     * The version changes whenever a user is added, removed or updated, and does not
+     * depend on the order of the users.
+     *
+     * @param users - the users of the list
+     * @return the version of the list
+     */
+    private static long versionOf(List<User> users) {
+        long version = users.size();
+        for (User user : users) {
+            version += mix(user.getId() * 0x9E3779B97F4A7C15L ^ user.getVersion());
+        }
+        return version;
+    }
+
+    /**
+     * Spreads the bits of a value (the finalizer of SplitMix64).
+     *
+     * @param value - the value to spread
+     * @return the spread value
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
     /**
      * Checks if a person is underage based on their birth date.
      * Throws an exception if the person is under 18 years old.
@@ -118,7 +354,7 @@ public class UserServiceImpl implements UserService{
      * @param birthDate - the birth date of the person to check
      * @throws UnderagePersonException if the person is under 18 years old
      */
-    private void isUnderagePerson(LocalDate birthDate) {
+    static void isUnderagePerson(LocalDate birthDate) {
         LocalDate minPossibleDate = LocalDate.now().minusYears(18);
         if (birthDate.isAfter(minPossibleDate)) {
             throw new UnderagePersonException("Registration of users under 18 years of age is not permitted");
@@ -0,0 +1,35 @@
+CREATE TABLE IF NOT EXISTS users (
+    id             BIGINT        NOT NULL PRIMARY KEY,
+    email          VARCHAR(320)  NOT NULL,
+    email_key      VARCHAR(320)  NOT NULL,
+    first_name     VARCHAR(255),
+    first_name_key VARCHAR(255),
+    last_name      VARCHAR(255),
+    last_name_key  VARCHAR(255),
+    birth_date     DATE,
+    address        VARCHAR(1024),
+    phone_number   VARCHAR(64),
+    version        BIGINT        NOT NULL DEFAULT 1
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_key ON users (email_key);
+CREATE INDEX IF NOT EXISTS users_birth_date ON users (birth_date, id);
+CREATE INDEX IF NOT EXISTS users_first_name_key ON users (first_name_key, id);
+CREATE INDEX IF NOT EXISTS users_last_name_key ON users (last_name_key, id);
+
+CREATE TABLE IF NOT EXISTS user_address_tokens (
+    token   VARCHAR(1024) NOT NULL,
+    user_id BIGINT        NOT NULL,
+    PRIMARY KEY (token, user_id),
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS user_address_tokens_user_id ON user_address_tokens (user_id);
+
+CREATE TABLE IF NOT EXISTS user_id_counter (
+    id      INT    NOT NULL PRIMARY KEY,
+    last_id BIGINT NOT NULL
+);
+
+INSERT INTO user_id_counter (id, last_id)
+SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM user_id_counter);
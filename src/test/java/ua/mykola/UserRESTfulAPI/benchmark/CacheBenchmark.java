@@ -0,0 +1,74 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ua.mykola.UserRESTfulAPI.dao.CachingUserRepository;
+import ua.mykola.UserRESTfulAPI.dao.JdbcUserStorage;
+import ua.mykola.UserRESTfulAPI.dao.UserRepository;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares reads by ID from the JDBC storage with and without the cache, for a skewed
+ * workload where most reads go to a small set of users, interrupted by scans over all users.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.users=200000}.
+ */
+@Tag("benchmark")
+class CacheBenchmark {
+    private static final int USERS = Integer.getInteger("benchmark.users", 200_000);
+    private static final int BATCH_SIZE = 1_000;
+    private static final int CACHE_SIZE = USERS / 20;
+    private static final int HOT_USERS = USERS / 50;
+    private static final int READS = 500_000;
+    private static final int SCAN_EVERY = 100_000;
+    private static final int SCAN_LENGTH = USERS / 4;
+
+    @Test
+    @DisplayName("Reads per second and hit ratio of the JDBC storage with and without the cache")
+    void compareReads() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:cache;DB_CLOSE_DELAY=-1");
+            new ResourceDatabasePopulator(new ClassPathResource("db/users-schema.sql")).execute(dataSource);
+            JdbcUserStorage storage = new JdbcUserStorage(dataSource);
+            for (long n = 0; n < USERS; n += BATCH_SIZE) {
+                List<User> batch = new ArrayList<>(BATCH_SIZE);
+                for (long i = n; i < n + BATCH_SIZE; i++) {
+                    batch.add(UserUtil.getSyntheticUser(i));
+                }
+                storage.saveAll(batch);
+            }
+
+            System.out.printf("%-10s %14s %10s %12s%n", "storage", "getById/s", "hit ratio", "evictions");
+            System.out.printf("%-10s %14.0f %10s %12s%n", "jdbc", read(storage), "-", "-");
+            CachingUserRepository cache = new CachingUserRepository(storage, CACHE_SIZE);
+            double reads = read(cache);
+            System.out.printf("%-10s %14.0f %10.3f %12d%n", "cached", reads, cache.stats().hitRate(), cache.stats().evictionCount());
+        }
+    }
+
+    private static double read(UserRepository storage) {
+        SplittableRandom random = new SplittableRandom(42);
+        long scanId = 1;
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            if (i % SCAN_EVERY == SCAN_EVERY - 1) {
+                for (int j = 0; j < SCAN_LENGTH; j++) {
+                    storage.getById(scanId);
+                    scanId = scanId % USERS + 1;
+                }
+            }
+            long id = random.nextInt(10) < 9 ? random.nextLong(1, HOT_USERS + 1) : random.nextLong(1, USERS + 1);
+            storage.getById(id);
+        }
+        long operations = READS + (long) (READS / SCAN_EVERY) * SCAN_LENGTH;
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+}
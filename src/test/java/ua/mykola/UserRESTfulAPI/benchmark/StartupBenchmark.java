@@ -0,0 +1,90 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.dao.UserSnapshotStore;
+import ua.mykola.UserRESTfulAPI.dao.WriteAheadLog;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the startup time of a durable storage restored from the write-ahead log only
+ * with one restored from a snapshot.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.startup.users=1000000,10000000,50000000};
+ * every size needs about 1 KB of heap per user.
+ */
+@Tag("benchmark")
+class StartupBenchmark {
+    private static final String SIZES = System.getProperty("benchmark.startup.users", "1000000,10000000,50000000");
+    private static final int BATCH_SIZE = 1_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Startup time from the write-ahead log and from a snapshot")
+    void compareStartupTime() throws IOException {
+        System.out.printf("%12s %14s %14s %14s %14s%n", "users", "log replay ms", "snapshot ms", "snapshot MB", "startup ms");
+        for (long users : Arrays.stream(SIZES.split(",")).map(String::trim).mapToLong(Long::parseLong).toArray()) {
+            measure(users);
+        }
+    }
+
+    private void measure(long users) throws IOException {
+        Path storageDirectory = Files.createDirectory(directory.resolve(Long.toString(users)));
+        Path logPath = storageDirectory.resolve("users.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(logPath, WriteAheadLog.FsyncPolicy.NEVER, 0)) {
+            UserDefaultStorage storage = new UserDefaultStorage(log, new UserSnapshotStore(storageDirectory));
+            for (long n = 0; n < users; n += BATCH_SIZE) {
+                List<User> batch = new ArrayList<>(BATCH_SIZE);
+                for (long i = n; i < Math.min(n + BATCH_SIZE, users); i++) {
+                    batch.add(UserUtil.getSyntheticUser(i));
+                }
+                storage.saveAll(batch);
+            }
+        }
+        System.gc();
+
+        long logReplayMillis;
+        long snapshotMillis;
+        try (WriteAheadLog log = new WriteAheadLog(logPath, WriteAheadLog.FsyncPolicy.NEVER, 0)) {
+            long start = System.nanoTime();
+            UserDefaultStorage storage = new UserDefaultStorage(log, new UserSnapshotStore(storageDirectory));
+            logReplayMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            storage.takeSnapshot();
+            snapshotMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+        System.gc();
+
+        long startupMillis;
+        try (WriteAheadLog log = new WriteAheadLog(logPath, WriteAheadLog.FsyncPolicy.NEVER, 0)) {
+            long start = System.nanoTime();
+            UserDefaultStorage storage = new UserDefaultStorage(log, new UserSnapshotStore(storageDirectory));
+            startupMillis = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(users, storage.getById(users).orElseThrow().getId());
+        }
+        System.gc();
+
+        long snapshotBytes;
+        try (Stream<Path> files = Files.list(storageDirectory)) {
+            snapshotBytes = files.filter(file -> file.toString().endsWith(".snapshot")).mapToLong(file -> file.toFile().length()).sum();
+        }
+        System.out.printf("%12d %14d %14d %14d %14d%n", users, logReplayMillis, snapshotMillis, snapshotBytes >> 20, startupMillis);
+    }
+}
@@ -0,0 +1,94 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ua.mykola.UserRESTfulAPI.dao.OffHeapUserStorage;
+import ua.mykola.UserRESTfulAPI.dao.UserChangeLog;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.dao.UserFieldDictionary;
+import ua.mykola.UserRESTfulAPI.dao.UserRepository;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.rest.caching.EncodedUserJsonModule;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the memory taken per user by the storage implementations.
+ * Every user is saved with its own strings and dates, as users parsed from requests are.
+ * Every user is then read and encoded as JSON once, as a full scan of the users does, and
+ * the heap kept by the stored users for later reads is reported separately.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.users=1000000}.
+ */
+@Tag("benchmark")
+class StorageMemoryBenchmark {
+    private static final int USERS = Integer.getInteger("benchmark.users", 1_000_000);
+
+    @Test
+    @DisplayName("Memory per user of the storage implementations")
+    void compareMemoryPerUser() throws IOException {
+        System.out.printf("%-20s %12s %12s %12s %14s%n", "storage", "heap B/user", "direct B/user", "total B/user",
+                "scanned B/user");
+        measure("UserDefaultStorage", UserDefaultStorage::new);
+        measure("OffHeapUserStorage", OffHeapUserStorage::new);
+        measure("UserFieldDictionary", () -> new UserDefaultStorage(UserChangeLog.NONE, null, new UserFieldDictionary()));
+    }
+
+    private void measure(String name, Supplier<UserRepository> factory) throws IOException {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+
+        UserRepository storage = factory.get();
+        for (int i = 0; i < USERS; i++) {
+            storage.save(UserUtil.copyOf(UserUtil.getSyntheticUser(i)));
+        }
+
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        if (storage instanceof OffHeapUserStorage offHeapStorage) {
+            direct = offHeapStorage.offHeapUsedBytes();
+        }
+        scan(storage);
+        long scanned = usedHeap() - heapBefore - heap;
+        System.out.printf("%-20s %12d %12d %12d %14d%n", name,
+                heap / USERS, direct / USERS, (heap + direct) / USERS, scanned / USERS);
+        assertEquals(USERS, storage.getById(USERS).orElseThrow().getId());
+    }
+
+    /**
+     * Reads and encodes every user as a full scan does.
+     */
+    private static void scan(UserRepository storage) throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new EncodedUserJsonModule()).build();
+        long bytes = 0;
+        for (User user : storage.getAll()) {
+            bytes += mapper.writeValueAsBytes(UserDto.fromStoredEntity(user)).length;
+        }
+        assertTrue(bytes > 0);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
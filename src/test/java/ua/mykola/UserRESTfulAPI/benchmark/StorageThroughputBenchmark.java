@@ -0,0 +1,103 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ua.mykola.UserRESTfulAPI.dao.JdbcUserStorage;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.dao.UserRepository;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the throughput of the in-memory storage with the JDBC storage
+ * over in-memory and file-based H2 databases.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.users=200000}.
+ */
+@Tag("benchmark")
+class StorageThroughputBenchmark {
+    private static final int USERS = Integer.getInteger("benchmark.users", 200_000);
+    private static final int BATCH_SIZE = 1_000;
+    private static final int SINGLE_SAVES = 5_000;
+    private static final int LOOKUPS = 50_000;
+    private static final int RANGE_QUERIES = 200;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Operations per second of the in-memory and JDBC storages")
+    void compareThroughput() {
+        System.out.printf("%-14s %14s %14s %14s %14s %14s%n",
+                "storage", "batch ins/s", "save/s", "getById/s", "range q/s", "update/s");
+        measure("in-memory", new UserDefaultStorage());
+        try (HikariDataSource dataSource = dataSource("jdbc:h2:mem:throughput;DB_CLOSE_DELAY=-1")) {
+            measure("jdbc h2 mem", new JdbcUserStorage(dataSource));
+        }
+        try (HikariDataSource dataSource = dataSource("jdbc:h2:file:" + directory.resolve("users-db"))) {
+            measure("jdbc h2 file", new JdbcUserStorage(dataSource));
+        }
+    }
+
+    private void measure(String name, UserRepository storage) {
+        long start = System.nanoTime();
+        for (long n = 0; n < USERS; n += BATCH_SIZE) {
+            List<User> batch = new ArrayList<>(BATCH_SIZE);
+            for (long i = n; i < n + BATCH_SIZE; i++) {
+                batch.add(UserUtil.getSyntheticUser(i));
+            }
+            storage.saveAll(batch);
+        }
+        double batchInserts = perSecond(USERS, start);
+
+        start = System.nanoTime();
+        for (long i = 0; i < SINGLE_SAVES; i++) {
+            storage.save(UserUtil.getSyntheticUser(USERS + i));
+        }
+        double saves = perSecond(SINGLE_SAVES, start);
+
+        SplittableRandom random = new SplittableRandom(42);
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            storage.getById(random.nextLong(1, USERS + 1));
+        }
+        double lookups = perSecond(LOOKUPS, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < RANGE_QUERIES; i++) {
+            LocalDate from = LocalDate.of(1960 + random.nextInt(40), 1, 1);
+            storage.getByBirthDateRange(from, from.plusMonths(1));
+        }
+        double rangeQueries = perSecond(RANGE_QUERIES, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            storage.update(User.builder().id(random.nextLong(1, USERS + 1)).phoneNumber("+38050" + i).build());
+        }
+        double updates = perSecond(LOOKUPS, start);
+
+        System.out.printf("%-14s %14.0f %14.0f %14.0f %14.0f %14.0f%n",
+                name, batchInserts, saves, lookups, rangeQueries, updates);
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        new ResourceDatabasePopulator(new ClassPathResource("db/users-schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    private static double perSecond(long operations, long start) {
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+}
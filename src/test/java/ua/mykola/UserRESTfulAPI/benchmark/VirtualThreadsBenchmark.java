@@ -0,0 +1,127 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ua.mykola.UserRESTfulAPI.UserRESTfulApi;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares requests served by the Tomcat thread pool with requests served on virtual threads,
+ * for many concurrent clients of a storage that takes a fixed time for every read.
+ * Prints the highest number of requests inside the storage at the same time, the throughput
+ * and the latency percentiles seen by the clients.
+ * Run with {@code mvn test -Pbenchmark,java21 -Dtest=VirtualThreadsBenchmark} on Java 21;
+ * on older versions only the thread pool is measured.
+ * {@code -Dbenchmark.clients=1000} sets the number of clients and
+ * {@code -Dbenchmark.storage-latency-ms=50} the time of a read.
+ */
+@Tag("benchmark")
+class VirtualThreadsBenchmark {
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1_000);
+    private static final long STORAGE_LATENCY_MILLIS = Long.getLong("benchmark.storage-latency-ms", 50);
+    private static final int REQUESTS_PER_CLIENT = 10;
+
+    @Test
+    @DisplayName("In-flight requests and tail latency with platform and virtual request threads")
+    void compareRequestThreads() throws Exception {
+        System.out.printf("%-10s %10s %12s %10s %10s %10s%n", "threads", "in-flight", "requests/s", "p50 ms", "p99 ms", "p999 ms");
+        measure(false);
+        if (Runtime.version().feature() >= 21) {
+            measure(true);
+        } else {
+            System.out.println("virtual threads need Java 21, run on it with -Pjava21");
+        }
+    }
+
+    private void measure(boolean virtualThreads) throws Exception {
+        SlowStorage storage = new SlowStorage();
+        storage.save(UserUtil.getMarkBohnDto().toEntity());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserRESTfulApi.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton("slowStorage", storage))
+                .run("--server.port=0", "--users.storage.mode=benchmark",
+                        "--spring.threads.virtual.enabled=" + virtualThreads, "--logging.level.root=warn")) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/users/1");
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                int offset = c * REQUESTS_PER_CLIENT;
+                clients.execute(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+                    try {
+                        start.await();
+                        for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                            long requestStart = System.nanoTime();
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                            latencies[offset + i] = System.nanoTime() - requestStart;
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+            long runStart = System.nanoTime();
+            start.countDown();
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(10, TimeUnit.MINUTES));
+            double seconds = (System.nanoTime() - runStart) / 1e9;
+            assertEquals(0, failures.get());
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %10d %12.0f %10.1f %10.1f %10.1f%n", virtualThreads ? "virtual" : "platform",
+                    storage.maxInFlight.get(), latencies.length / seconds,
+                    percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.99), percentileMillis(latencies, 0.999));
+        }
+    }
+
+    private static double percentileMillis(long[] sortedLatencies, double percentile) {
+        return sortedLatencies[(int) Math.ceil(percentile * sortedLatencies.length) - 1] / 1e6;
+    }
+
+    /**
+     * An in-memory storage whose reads by ID wait like a remote database would,
+     * counting how many of them wait at the same time.
+     */
+    private static final class SlowStorage extends UserDefaultStorage {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public Optional<User> getById(long id) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(STORAGE_LATENCY_MILLIS);
+                return super.getById(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
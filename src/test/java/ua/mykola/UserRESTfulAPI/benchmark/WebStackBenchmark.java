@@ -0,0 +1,149 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ua.mykola.UserRESTfulAPI.UserRESTfulApi;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the servlet stack with the reactive stack on the same in-memory storage.
+ * For each stack prints the throughput and latency percentiles of concurrent reads by ID,
+ * and for a read of all users the time to the first byte, the total time and the size of the response.
+ * Run with {@code mvn test -Pbenchmark -Dtest=WebStackBenchmark}.
+ * {@code -Dbenchmark.users=200000} sets the number of stored users and
+ * {@code -Dbenchmark.clients=64} the number of concurrent clients.
+ */
+@Tag("benchmark")
+class WebStackBenchmark {
+    private static final int USERS = Integer.getInteger("benchmark.users", 200_000);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 64);
+    private static final int REQUESTS_PER_CLIENT = 2_000;
+
+    @Test
+    @DisplayName("Reads by ID and a read of all users on the servlet and reactive stacks")
+    void compareWebStacks() throws Exception {
+        UserDefaultStorage storage = new UserDefaultStorage();
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(UserUtil.getSyntheticUser(i));
+        }
+        storage.saveAll(users);
+
+        System.out.printf("%-9s %12s %9s %9s %9s | %12s %12s %10s%n", "stack", "by id req/s", "p50 ms", "p99 ms",
+                "p999 ms", "all 1st ms", "all total ms", "all MB");
+        measure("servlet", storage);
+        measure("reactive", storage);
+    }
+
+    private void measure(String stack, UserDefaultStorage storage) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserRESTfulApi.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton("benchmarkStorage", storage))
+                .run("--server.port=0", "--users.storage.mode=benchmark", "--logging.level.root=warn",
+                        "--spring.profiles.active=" + (stack.equals("reactive") ? "reactive" : "default"))) {
+            String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/users";
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            readAll(client, baseUri);
+            readById(client, baseUri);
+            long[] latencies = readById(client, baseUri);
+            double seconds = latencies[latencies.length - 1] / 1e9;
+            latencies = Arrays.copyOf(latencies, latencies.length - 1);
+            Arrays.sort(latencies);
+            long[] all = readAll(client, baseUri);
+
+            System.out.printf("%-9s %12.0f %9.2f %9.2f %9.2f | %12.1f %12.1f %10.1f%n", stack,
+                    latencies.length / seconds, percentileMillis(latencies, 0.5),
+                    percentileMillis(latencies, 0.99), percentileMillis(latencies, 0.999),
+                    all[0] / 1e6, all[1] / 1e6, all[2] / 1e6);
+        }
+    }
+
+    /**
+     * Reads random users by ID from concurrent clients.
+     *
+     * @return the latency of every request, followed by the duration of the whole run
+     */
+    private long[] readById(HttpClient client, String baseUri) throws Exception {
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT + 1];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            int offset = c * REQUESTS_PER_CLIENT;
+            clients.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long id = ThreadLocalRandom.current().nextLong(1, USERS + 1);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/" + id)).GET().build();
+                        long requestStart = System.nanoTime();
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[offset + i] = System.nanoTime() - requestStart;
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        long runStart = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(10, TimeUnit.MINUTES));
+        latencies[latencies.length - 1] = System.nanoTime() - runStart;
+        assertEquals(0, failures.get());
+        return latencies;
+    }
+
+    /**
+     * Reads all users as one JSON array.
+     *
+     * @return the time to the first byte, the total time and the number of bytes read
+     */
+    private long[] readAll(HttpClient client, String baseUri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri)).GET().build();
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        byte[] buffer = new byte[64 * 1024];
+        long firstByte = 0;
+        long bytes = 0;
+        try (InputStream body = response.body()) {
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                if (bytes == 0) {
+                    firstByte = System.nanoTime() - start;
+                }
+                bytes += read;
+            }
+        }
+        return new long[]{firstByte, System.nanoTime() - start, bytes};
+    }
+
+    private static double percentileMillis(long[] sortedLatencies, double percentile) {
+        return sortedLatencies[(int) Math.ceil(percentile * sortedLatencies.length) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,70 @@
+package ua.mykola.UserRESTfulAPI.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ua.mykola.UserRESTfulAPI.dao.UserDefaultStorage;
+import ua.mykola.UserRESTfulAPI.dao.WriteAheadLog;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the write throughput of a storage backed by a write-ahead log
+ * for every fsync policy and several numbers of writing threads.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark.writes=20000}.
+ */
+@Tag("benchmark")
+class WriteAheadLogBenchmark {
+    private static final int WRITES = Integer.getInteger("benchmark.writes", 20_000);
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Writes per second of the write-ahead log by fsync policy")
+    void compareFsyncPolicies() throws Exception {
+        System.out.printf("%-10s %8s %14s %12s %14s%n", "fsync", "threads", "writes/sec", "fsyncs", "writes/fsync");
+        for (WriteAheadLog.FsyncPolicy policy : WriteAheadLog.FsyncPolicy.values()) {
+            for (int threads : THREADS) {
+                measure(policy, threads);
+            }
+        }
+    }
+
+    private void measure(WriteAheadLog.FsyncPolicy policy, int threads) throws Exception {
+        Path logPath = directory.resolve(policy + "-" + threads + ".wal");
+        AtomicLong sequence = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (WriteAheadLog log = new WriteAheadLog(logPath, policy, 10)) {
+            UserDefaultStorage storage = new UserDefaultStorage(log);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long n;
+                    while ((n = sequence.getAndIncrement()) < WRITES) {
+                        storage.save(UserUtil.getSyntheticUser(n));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            long syncs = log.syncCount();
+            System.out.printf("%-10s %8d %14.0f %12d %14s%n", policy, threads,
+                    WRITES * 1e9 / elapsed, syncs, syncs > 0 ? String.format("%.1f", (double) WRITES / syncs) : "-");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
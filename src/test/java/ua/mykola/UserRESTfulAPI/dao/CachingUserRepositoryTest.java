@@ -0,0 +1,161 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the repository contract through the cache and checks that the cache
+ * never serves a user that differs from the underlying storage. The maintenance of the
+ * cache runs on the calling thread, so evictions are deterministic.
+ */
+class CachingUserRepositoryTest extends UserRepositoryContractTest {
+    private static final int MAXIMUM_SIZE = 100;
+
+    private UserDefaultStorage delegate;
+
+    @Override
+    protected UserRepository createStorage() {
+        delegate = new UserDefaultStorage();
+        return new CachingUserRepository(delegate, MAXIMUM_SIZE, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Repeated reads of a user are served from the cache")
+    void givenCachedUser_whenGetById_thenHitIsCounted() {
+        //given
+        CachingUserRepository cache = (CachingUserRepository) storage;
+        long id = storage.save(UserUtil.getMarkBohnDto().toEntity()).getId();
+
+        //when
+        storage.getById(id);
+        storage.getById(id);
+        storage.getById(id);
+
+        //then
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(2, cache.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Cache counters are published as meters")
+    void givenBoundRegistry_whenReadingAndEvicting_thenMetersFollowCacheStats() {
+        //given
+        CachingUserRepository cache = (CachingUserRepository) storage;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < MAXIMUM_SIZE * 2; i++) {
+            newUsers.add(UserUtil.getSyntheticUser(i));
+        }
+        List<User> savedUsers = storage.saveAll(newUsers);
+
+        //when
+        for (User user : savedUsers) {
+            storage.getById(user.getId());
+        }
+        storage.getById(savedUsers.get(savedUsers.size() - 1).getId());
+        cache.cleanUp();
+
+        //then
+        String name = CachingUserRepository.CACHE_NAME;
+        assertEquals(cache.stats().hitCount(),
+                registry.get("cache.gets").tags("cache", name, "result", "hit").functionCounter().count());
+        assertEquals(cache.stats().missCount(),
+                registry.get("cache.gets").tags("cache", name, "result", "miss").functionCounter().count());
+        assertTrue(cache.stats().missCount() >= MAXIMUM_SIZE * 2);
+        assertEquals(cache.stats().evictionCount(),
+                registry.get("cache.evictions").tag("cache", name).functionCounter().count());
+        assertTrue(registry.get("cache.evictions").tag("cache", name).functionCounter().count() >= MAXIMUM_SIZE);
+        assertEquals(cache.size(), registry.get("cache.size").tag("cache", name).gauge().value());
+    }
+
+    @Test
+    @DisplayName("Updated and deleted users are not served from the cache")
+    void givenCachedUser_whenUpdateAndDelete_thenCacheIsInvalidated() {
+        //given
+        long id = storage.save(UserUtil.getMarkBohnDto().toEntity()).getId();
+        storage.getById(id);
+
+        //when
+        storage.update(User.builder().id(id).firstName("Markiyan").build());
+        String firstName = storage.getById(id).orElseThrow().getFirstName();
+        storage.deleteAll(List.of(id));
+
+        //then
+        assertEquals("Markiyan", firstName);
+        assertTrue(storage.getById(id).isEmpty());
+        assertFalse(storage.isExist(id));
+    }
+
+    @Test
+    @DisplayName("The cache stays bounded and keeps frequently read users during a scan")
+    void givenHotUserAndScan_whenGetById_thenCacheIsBoundedAndHotUserStays() {
+        //given
+        CachingUserRepository cache = (CachingUserRepository) storage;
+        long hotId = storage.save(UserUtil.getSyntheticUser(0)).getId();
+        List<Long> scannedIds = new ArrayList<>();
+        for (int i = 1; i <= MAXIMUM_SIZE * 10; i++) {
+            scannedIds.add(storage.save(UserUtil.getSyntheticUser(i)).getId());
+        }
+        scannedIds.subList(0, MAXIMUM_SIZE).forEach(storage::getById);
+        for (int i = 0; i < 20; i++) {
+            storage.getById(hotId);
+        }
+
+        //when
+        scannedIds.subList(MAXIMUM_SIZE, scannedIds.size()).forEach(storage::getById);
+        cache.cleanUp();
+        long hitsBefore = cache.stats().hitCount();
+        storage.getById(hotId);
+
+        //then
+        assertTrue(cache.size() <= MAXIMUM_SIZE + 1);
+        assertTrue(cache.stats().evictionCount() >= scannedIds.size() - MAXIMUM_SIZE);
+        assertEquals(hitsBefore + 1, cache.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Concurrent reads and updates of one user never leave a stale user in the cache")
+    void givenConcurrentReadsAndUpdates_whenDone_thenCacheMatchesStorage() throws Exception {
+        //given
+        long id = storage.save(UserUtil.getMarkBohnDto().toEntity()).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    if (thread % 2 == 0) {
+                        storage.update(User.builder().id(id).firstName("Name" + thread + "-" + i).build());
+                    } else {
+                        storage.getById(id);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        //then
+        assertEquals(delegate.getById(id).orElseThrow().getFirstName(), storage.getById(id).orElseThrow().getFirstName());
+    }
+}
@@ -0,0 +1,177 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLongHashMapTest {
+
+    @Test
+    @DisplayName("Random puts, computes and removes match a HashMap")
+    void givenRandomOperations_whenApplied_thenMapMatchesHashMap() {
+        //given
+        ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextLong(1, 5_000);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.put(key, "p" + i), map.put(key, "p" + i));
+                case 1 -> assertEquals(expected.remove(key), map.remove(key));
+                case 2 -> assertEquals(expected.computeIfPresent(key, (k, v) -> v + "c"),
+                        map.computeIfPresent(key, (k, v) -> v + "c"));
+                default -> assertEquals(expected.compute(key, (k, v) -> v == null ? "n" : null),
+                        map.compute(key, (k, v) -> v == null ? "n" : null));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        Set<String> values = new HashSet<>();
+        map.forEachValue(values::add);
+        assertEquals(new HashSet<>(expected.values()), values);
+    }
+
+    @Test
+    @DisplayName("A failing remapping leaves the key unchanged")
+    void givenThrowingRemapping_whenCompute_thenValueIsKept() {
+        //given
+        ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<>();
+        map.put(7, "seven");
+
+        //when
+        assertThrows(IllegalStateException.class, () -> map.computeIfPresent(7, (key, value) -> {
+            throw new IllegalStateException();
+        }));
+
+        //then
+        assertEquals("seven", map.get(7));
+        assertEquals(1, map.size());
+        assertNull(map.get(0));
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, "zero"));
+    }
+
+    @Test
+    @DisplayName("Readers always find keys that stay while other keys are added, moved and removed")
+    void givenConcurrentWriters_whenReading_thenStableKeysAreAlwaysFound() throws Exception {
+        //given
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<>(64);
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        Future<?> writer = executor.submit(() -> {
+            SplittableRandom random = new SplittableRandom(1);
+            while (running.get()) {
+                long key = random.nextLong(1_001, 100_000);
+                map.put(key, key);
+                map.remove(random.nextLong(1_001, 100_000));
+            }
+        });
+        Future<?>[] readers = new Future<?>[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom();
+                for (int i = 0; i < 2_000_000; i++) {
+                    long key = random.nextLong(1, 1_001);
+                    assertEquals(key, map.get(key));
+                }
+            });
+        }
+
+        //then
+        for (Future<?> reader : readers) {
+            reader.get(1, TimeUnit.MINUTES);
+        }
+        running.set(false);
+        writer.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Reads of a segment go on while a remapping holds its lock")
+    void givenRemappingInProgress_whenReadingSameSegment_thenReadDoesNotWait() throws Exception {
+        //given
+        ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<>();
+        map.put(1, "one");
+        map.put(65, "sixty-five");
+        CountDownLatch remappingStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> map.computeIfPresent(1, (key, value) -> {
+            remappingStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "uno";
+        }));
+        assertTrue(remappingStarted.await(10, TimeUnit.SECONDS));
+
+        //when
+        String sameKey = CompletableFuture.supplyAsync(() -> map.get(1)).get(10, TimeUnit.SECONDS);
+        String sameSegment = CompletableFuture.supplyAsync(() -> map.get(65)).get(10, TimeUnit.SECONDS);
+        List<String> values = new ArrayList<>();
+        CompletableFuture.runAsync(() -> map.forEachValue(values::add)).get(10, TimeUnit.SECONDS);
+
+        //then
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals("one", sameKey);
+        assertEquals("sixty-five", sameSegment);
+        assertEquals(2, values.size());
+        assertEquals("uno", map.get(1));
+    }
+
+    @Test
+    @DisplayName("Removed keys are dropped when the table is rebuilt")
+    void givenManyInsertedAndRemovedKeys_whenRebuilt_thenLiveKeysRemain() {
+        //given
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<>(64);
+
+        //when
+        for (long key = 1; key <= 1_000_000; key++) {
+            map.put(key, key);
+            if (key > 100) {
+                map.remove(key - 100);
+            }
+        }
+
+        //then
+        assertEquals(100, map.size());
+        for (long key = 999_901; key <= 1_000_000; key++) {
+            assertEquals(key, map.get(key));
+        }
+        assertNull(map.get(999_900));
+    }
+}
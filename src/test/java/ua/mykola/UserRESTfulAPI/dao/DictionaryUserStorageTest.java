@@ -0,0 +1,89 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Runs the repository contract on a storage with a {@link UserFieldDictionary} and checks
+ * that repeated fields are shared and released with the users that refer to them.
+ */
+class DictionaryUserStorageTest extends UserRepositoryContractTest {
+    private UserFieldDictionary dictionary;
+
+    @Override
+    protected UserRepository createStorage() {
+        dictionary = new UserFieldDictionary();
+        return new UserDefaultStorage(UserChangeLog.NONE, null, dictionary);
+    }
+
+    @Test
+    @DisplayName("Users with equal fields share one instance of each")
+    void givenUsersWithEqualFields_whenSaved_thenFieldsAreShared() {
+        //given
+        User first = UserUtil.copyOf(UserUtil.getSyntheticUser(0));
+        User second = UserUtil.copyOf(UserUtil.getSyntheticUser(0));
+        second.setEmail("other@example.com");
+
+        //when
+        storage.saveAll(List.of(first, second));
+
+        //then
+        User firstStored = storage.getById(first.getId()).orElseThrow();
+        User secondStored = storage.getById(second.getId()).orElseThrow();
+        assertSame(firstStored.getFirstName(), secondStored.getFirstName());
+        assertSame(firstStored.getLastName(), secondStored.getLastName());
+        assertSame(firstStored.getAddress(), secondStored.getAddress());
+        assertSame(firstStored.getBirthDate(), secondStored.getBirthDate());
+        assertEquals(4, dictionary.size());
+    }
+
+    @Test
+    @DisplayName("Values are dropped when the last user referring to them is updated or deleted")
+    void givenSharedValues_whenUsersChangeOrLeave_thenUnusedValuesAreDropped() {
+        //given
+        User first = storage.save(UserUtil.copyOf(UserUtil.getSyntheticUser(0)));
+        User second = UserUtil.copyOf(UserUtil.getSyntheticUser(0));
+        second.setEmail("other@example.com");
+        storage.save(second);
+
+        //when
+        storage.update(User.builder().id(first.getId()).address("1 New Street, Kyiv").build());
+        int sizeAfterUpdate = dictionary.size();
+        storage.delete(second.getId());
+        int sizeAfterDelete = dictionary.size();
+        storage.delete(first.getId());
+
+        //then
+        assertEquals(5, sizeAfterUpdate);
+        assertEquals(4, sizeAfterDelete);
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    @DisplayName("Updating a field to a value another user has shares that user's instance")
+    void givenTwoUsers_whenUpdatedToTheOtherUsersName_thenNameIsShared() {
+        //given
+        User mark = storage.save(UserUtil.copyOf(UserUtil.getSyntheticUser(0)));
+        User lisa = storage.save(UserUtil.copyOf(UserUtil.getSyntheticUser(1)));
+
+        //when
+        User updated = storage.update(User.builder()
+                .id(lisa.getId())
+                .firstName(new String(mark.getFirstName()))
+                .birthDate(LocalDate.of(mark.getBirthDate().getYear(), mark.getBirthDate().getMonth(),
+                        mark.getBirthDate().getDayOfMonth()))
+                .build());
+
+        //then
+        assertSame(mark.getFirstName(), updated.getFirstName());
+        assertSame(mark.getBirthDate(), updated.getBirthDate());
+    }
+}
@@ -0,0 +1,243 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the repository contract against a storage backed by a write-ahead log and snapshots
+ * and checks that the storage survives a restart.
+ */
+class DurableUserStorageTest extends UserRepositoryContractTest {
+    private Path directory;
+    private Path logPath;
+    private WriteAheadLog log;
+
+    @Override
+    protected UserRepository createStorage() {
+        try {
+            directory = Files.createTempDirectory("users-storage");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        logPath = directory.resolve("users.wal");
+        log = openLog();
+        return new UserDefaultStorage(log, new UserSnapshotStore(directory));
+    }
+
+    @AfterEach
+    void closeLog() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Saved, updated and deleted users are restored after a restart")
+    void givenLoggedChanges_whenRestart_thenStorageIsRestored() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User john = storage.save(UserUtil.getSyntheticUser(1));
+        User jane = storage.save(UserUtil.getSyntheticUser(2));
+        storage.update(User.builder().id(mark.getId()).firstName("Markiyan").build());
+        storage.delete(john.getId());
+
+        //when
+        UserRepository restarted = restart();
+
+        //then
+        assertEquals("Markiyan", restarted.getById(mark.getId()).orElseThrow().getFirstName());
+        assertEquals(2, restarted.getById(mark.getId()).orElseThrow().getVersion());
+        assertFalse(restarted.isExist(john.getId()));
+        assertEquals(jane.getEmail(), restarted.getById(jane.getId()).orElseThrow().getEmail());
+        assertEquals(List.of(mark.getId()), restarted.searchByNamePrefix("markiyan", 10).stream().map(User::getId).toList());
+        assertThrows(ConflictException.class, () -> restarted.save(UserUtil.getMarkBohnDto().toEntity()));
+        assertEquals(jane.getId() + 2, restarted.save(UserUtil.getSyntheticUser(3)).getId());
+    }
+
+    @Test
+    @DisplayName("IDs of deleted users are not reused after a restart")
+    void givenLastUserDeleted_whenRestartAndSave_thenNewIdIsAllocated() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        storage.delete(mark.getId());
+
+        //when
+        UserRepository restarted = restart();
+        User saved = restarted.save(UserUtil.getMarkBohnDto().toEntity());
+
+        //then
+        assertEquals(mark.getId() + 1, saved.getId());
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the log is discarded on replay")
+    void givenTornLastRecord_whenRestart_thenCompleteRecordsAreRestored() throws IOException {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User john = storage.save(UserUtil.getSyntheticUser(1));
+        log.close();
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        //when
+        log = openLog();
+        UserRepository restarted = new UserDefaultStorage(log, new UserSnapshotStore(directory));
+        User jane = restarted.save(UserUtil.getSyntheticUser(2));
+        UserRepository restartedAgain = restart();
+
+        //then
+        assertTrue(restartedAgain.isExist(mark.getId()));
+        assertTrue(restartedAgain.getByEmail(john.getEmail()).isEmpty());
+        assertEquals(jane.getEmail(), restartedAgain.getById(jane.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    @DisplayName("Storage is restored from a snapshot and the log written after it")
+    void givenSnapshotAndLaterChanges_whenRestart_thenStorageIsRestored() throws IOException {
+        //given
+        UserDefaultStorage durableStorage = (UserDefaultStorage) storage;
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User john = storage.save(UserUtil.getSyntheticUser(1));
+        assertTrue(durableStorage.takeSnapshot());
+        User jane = storage.save(UserUtil.getSyntheticUser(2));
+        storage.update(User.builder().id(mark.getId()).firstName("Markiyan").build());
+        storage.delete(john.getId());
+        assertTrue(durableStorage.takeSnapshot());
+        storage.delete(jane.getId());
+
+        //when
+        UserRepository restarted = restart();
+
+        //then
+        assertEquals("Markiyan", restarted.getById(mark.getId()).orElseThrow().getFirstName());
+        assertEquals(2, restarted.getById(mark.getId()).orElseThrow().getVersion());
+        assertFalse(restarted.isExist(john.getId()));
+        assertFalse(restarted.isExist(jane.getId()));
+        assertEquals(jane.getId() + 1, restarted.save(UserUtil.getSyntheticUser(3)).getId());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".snapshot")).count());
+        }
+    }
+
+    @Test
+    @DisplayName("No snapshot is taken when nothing has changed")
+    void givenNoChangesSinceSnapshot_whenTakeSnapshot_thenNothingIsWritten() {
+        //given
+        UserDefaultStorage durableStorage = (UserDefaultStorage) storage;
+        storage.save(UserUtil.getMarkBohnDto().toEntity());
+        assertTrue(durableStorage.takeSnapshot());
+
+        //when
+        boolean taken = durableStorage.takeSnapshot();
+
+        //then
+        assertFalse(taken);
+    }
+
+    @Test
+    @DisplayName("A batch is forced to disk with one fsync")
+    void givenBatchOfUsers_whenSaveUpdateAndDeleteAll_thenEachBatchIsSyncedOnce() {
+        //given
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            newUsers.add(UserUtil.getSyntheticUser(i));
+        }
+
+        //when
+        long syncsBeforeSave = log.syncCount();
+        List<User> savedUsers = storage.saveAll(newUsers);
+        long syncsBeforeUpdate = log.syncCount();
+        storage.updateAll(savedUsers.stream().map(user -> User.builder().id(user.getId()).phoneNumber("555").build()).toList());
+        long syncsBeforeDelete = log.syncCount();
+        storage.deleteAll(savedUsers.stream().map(User::getId).toList());
+
+        //then
+        assertEquals(1, syncsBeforeUpdate - syncsBeforeSave);
+        assertEquals(1, syncsBeforeDelete - syncsBeforeUpdate);
+        assertEquals(1, log.syncCount() - syncsBeforeDelete);
+    }
+
+    @Test
+    @DisplayName("Snapshots taken during concurrent writes restore the exact storage content")
+    void givenConcurrentWrites_whenSnapshotAndRestart_thenContentMatches() throws Exception {
+        //given
+        UserDefaultStorage durableStorage = (UserDefaultStorage) storage;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong sequence = new AtomicLong();
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(writers.submit(() -> {
+                while (writing.get()) {
+                    long n = sequence.incrementAndGet();
+                    User user = storage.save(UserUtil.getSyntheticUser(n));
+                    if (n % 3 == 0) {
+                        storage.update(User.builder().id(user.getId()).lastName("Updated" + n).build());
+                    }
+                    if (n % 5 == 0) {
+                        storage.delete(user.getId() - 1);
+                    }
+                }
+            }));
+        }
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            durableStorage.takeSnapshot();
+        }
+        writing.set(false);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        writers.shutdown();
+        List<User> expected = storage.getAll();
+        UserRepository restarted = restart();
+
+        //then
+        assertEquals(expected.size(), restarted.getAll().size());
+        for (User user : expected) {
+            User restored = restarted.getById(user.getId()).orElseThrow();
+            assertEquals(user.getEmail(), restored.getEmail());
+            assertEquals(user.getLastName(), restored.getLastName());
+        }
+    }
+
+    private UserRepository restart() {
+        log.close();
+        log = openLog();
+        return new UserDefaultStorage(log, new UserSnapshotStore(directory));
+    }
+
+    private WriteAheadLog openLog() {
+        return new WriteAheadLog(logPath, WriteAheadLog.FsyncPolicy.ALWAYS, 0);
+    }
+}
@@ -0,0 +1,72 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the repository contract against an embedded H2 database.
+ */
+class JdbcUserStorageTest extends UserRepositoryContractTest {
+    private HikariDataSource dataSource;
+
+    @Override
+    protected UserRepository createStorage() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        dataSource.setMaximumPoolSize(10);
+        new ResourceDatabasePopulator(new ClassPathResource("db/users-schema.sql")).execute(dataSource);
+        return new JdbcUserStorage(dataSource);
+    }
+
+    @AfterEach
+    void closeDataSource() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("A batch with a taken email saves every other user")
+    void givenBatchWithTakenEmail_whenSaveAll_thenOnlyConflictingUserIsNotSaved() {
+        //given
+        storage.save(UserUtil.getMarkBohnDto().toEntity());
+        List<User> batch = new ArrayList<>();
+        batch.add(UserUtil.getSyntheticUser(1));
+        batch.add(UserUtil.getMarkBohnDto().toEntity());
+        batch.add(UserUtil.getSyntheticUser(2));
+
+        //when
+        List<User> savedUsers = storage.saveAll(batch);
+
+        //then
+        assertNotNull(savedUsers.get(0));
+        assertNull(savedUsers.get(1));
+        assertNotNull(savedUsers.get(2));
+        assertEquals(3, storage.getAll().size());
+    }
+
+    @Test
+    @DisplayName("Wildcards in a name prefix are matched literally")
+    void givenPrefixWithWildcards_whenSearchByNamePrefix_thenWildcardsAreNotExpanded() {
+        //given
+        storage.save(UserUtil.getMarkBohnDto().toEntity());
+
+        //when
+        List<User> users = storage.searchByNamePrefix("%a", 10);
+
+        //then
+        assertEquals(0, users.size());
+    }
+}
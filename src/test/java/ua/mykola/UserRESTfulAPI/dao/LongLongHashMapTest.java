@@ -0,0 +1,63 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongLongHashMapTest {
+
+    @Test
+    @DisplayName("Random puts and removes match a HashMap")
+    void givenRandomOperations_whenApplied_thenMapMatchesHashMap() {
+        //given
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextLong(1, 5_000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                Long removed = expected.remove(key);
+                assertEquals(removed != null ? removed : LongLongHashMap.NO_VALUE, map.remove(key));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key < 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongLongHashMap.NO_VALUE), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Keys that are not positive are never found after removals")
+    void givenRemovedKeys_whenGetOrRemoveNonPositiveKey_thenNoValue() {
+        //given
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key * 64);
+        }
+        for (long key = 1; key <= 1_000; key++) {
+            map.remove(key);
+        }
+
+        //when
+        long found = map.get(0);
+        long removed = map.remove(0);
+
+        //then
+        assertEquals(LongLongHashMap.NO_VALUE, found);
+        assertEquals(LongLongHashMap.NO_VALUE, removed);
+        assertEquals(LongLongHashMap.NO_VALUE, map.get(-1));
+        assertEquals(0, map.size());
+    }
+}
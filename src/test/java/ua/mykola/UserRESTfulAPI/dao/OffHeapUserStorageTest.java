@@ -0,0 +1,90 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapUserStorageTest extends UserRepositoryContractTest {
+    private static final int SLAB_SIZE = 64 * 1024;
+
+    @Override
+    protected UserRepository createStorage() {
+        return new OffHeapUserStorage(SLAB_SIZE);
+    }
+
+    @Test
+    @DisplayName("Records survive the round trip through off-heap memory")
+    void givenUserWithAllFields_whenSaveAndGetById_thenAllFieldsAreRestored() {
+        //given
+        User user = UserUtil.getMarkBohnDto().toEntity();
+        user.setAddress("вул. Хрещатик 1, Київ");
+        user.setPhoneNumber(null);
+
+        //when
+        long id = storage.save(user).getId();
+        User restored = storage.getById(id).orElseThrow();
+
+        //then
+        assertEquals(user.getEmail(), restored.getEmail());
+        assertEquals(user.getFirstName(), restored.getFirstName());
+        assertEquals(user.getLastName(), restored.getLastName());
+        assertEquals(user.getBirthDate(), restored.getBirthDate());
+        assertEquals("вул. Хрещатик 1, Київ", restored.getAddress());
+        assertNull(restored.getPhoneNumber());
+    }
+
+    @Test
+    @DisplayName("Slots of deleted and grown records are reused")
+    void givenDeletedAndGrownRecords_whenSave_thenOffHeapMemoryIsReused() {
+        //given
+        OffHeapUserStorage offHeapStorage = (OffHeapUserStorage) storage;
+        for (int i = 0; i < 2_000; i++) {
+            User user = UserUtil.getSyntheticUser(i);
+            storage.save(user);
+            storage.update(User.builder().id(user.getId()).address("A much longer address " + "x".repeat(64)).build());
+            storage.delete(user.getId());
+        }
+
+        //when
+        List<User> users = storage.getAll();
+
+        //then
+        assertTrue(users.isEmpty());
+        assertEquals(0, offHeapStorage.offHeapUsedBytes());
+        assertEquals(SLAB_SIZE, offHeapStorage.offHeapReservedBytes());
+    }
+
+    @Test
+    @DisplayName("ID 0 is never found after deletes and deleting it frees nothing")
+    void givenDeletedUsers_whenGetOrDeleteIdZero_thenNothingIsFoundOrFreed() {
+        //given
+        OffHeapUserStorage offHeapStorage = (OffHeapUserStorage) storage;
+        for (int i = 0; i < 2_000; i++) {
+            storage.save(UserUtil.getSyntheticUser(i));
+        }
+        for (long id = 1; id <= 1_000; id++) {
+            storage.delete(id);
+        }
+        long usedBytes = offHeapStorage.offHeapUsedBytes();
+
+        //when
+        boolean exists = storage.isExist(0);
+        Optional<User> found = storage.getById(0);
+        storage.delete(0);
+
+        //then
+        assertFalse(exists);
+        assertTrue(found.isEmpty());
+        assertEquals(1_000, storage.count());
+        assertEquals(usedBytes, offHeapStorage.offHeapUsedBytes());
+    }
+}
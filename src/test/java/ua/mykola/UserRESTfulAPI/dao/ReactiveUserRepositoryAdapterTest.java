@@ -0,0 +1,125 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveUserRepositoryAdapterTest {
+    private static final int USERS = 2 * ReactiveUserRepositoryAdapter.PAGE_SIZE + 500;
+
+    private final AtomicInteger pagesRead = new AtomicInteger();
+    private UserDefaultStorage storage;
+    private ReactiveUserRepositoryAdapter repository;
+
+    @BeforeEach
+    void setUp() {
+        storage = new UserDefaultStorage() {
+            @Override
+            public List<User> getPage(long afterId, int limit) {
+                pagesRead.incrementAndGet();
+                return super.getPage(afterId, limit);
+            }
+        };
+        repository = new ReactiveUserRepositoryAdapter(storage, Schedulers.immediate());
+    }
+
+    @Test
+    @DisplayName("All users are streamed in ID order across pages")
+    void givenSeveralPagesOfUsers_whenGetAll_thenEveryUserIsStreamedInOrder() {
+        //given
+        List<User> saved = saveUsers();
+
+        //when
+        List<User> streamed = repository.getAll().collectList().block();
+
+        //then
+        assertEquals(saved.size(), streamed.size());
+        for (int i = 0; i < saved.size(); i++) {
+            assertEquals(saved.get(i).getId(), streamed.get(i).getId());
+        }
+        assertEquals(3, pagesRead.get());
+    }
+
+    @Test
+    @DisplayName("Pages are only read as the subscriber requests users")
+    void givenSlowSubscriber_whenGetAll_thenOnlyRequestedPagesAreRead() {
+        //given
+        saveUsers();
+
+        //when
+        //then
+        StepVerifier.create(repository.getAll(), 1)
+                .expectNextCount(1)
+                .then(() -> assertEquals(1, pagesRead.get()))
+                .thenRequest(ReactiveUserRepositoryAdapter.PAGE_SIZE)
+                .expectNextCount(ReactiveUserRepositoryAdapter.PAGE_SIZE)
+                .then(() -> assertEquals(2, pagesRead.get()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("An empty storage completes the stream without users")
+    void givenEmptyStorage_whenGetAll_thenStreamCompletesEmpty() {
+        //given
+        //when
+        //then
+        StepVerifier.create(repository.getAll())
+                .verifyComplete();
+        assertEquals(1, pagesRead.get());
+    }
+
+    @Test
+    @DisplayName("A missing user is an empty Mono")
+    void givenMissingUser_whenGetById_thenMonoIsEmpty() {
+        //given
+        long id = storage.save(UserUtil.getMarkBohnDto().toEntity()).getId();
+
+        //when
+        //then
+        StepVerifier.create(repository.getById(id))
+                .expectNextMatches(user -> user.getId() == id)
+                .verifyComplete();
+        StepVerifier.create(repository.getById(id + 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Nothing reaches the storage until the Mono is subscribed to")
+    void givenUnsubscribedDelete_whenSubscribed_thenUserIsDeleted() {
+        //given
+        long id = storage.save(UserUtil.getMarkBohnDto().toEntity()).getId();
+
+        //when
+        Mono<Void> delete = repository.delete(id);
+
+        //then
+        assertTrue(storage.isExist(id));
+        StepVerifier.create(delete)
+                .verifyComplete();
+        assertFalse(storage.isExist(id));
+    }
+
+    private List<User> saveUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(UserUtil.getSyntheticUser(i));
+        }
+        List<User> saved = storage.saveAll(users);
+        pagesRead.set(0);
+        return saved;
+    }
+}
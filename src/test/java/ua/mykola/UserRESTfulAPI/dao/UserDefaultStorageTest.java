@@ -0,0 +1,219 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserDefaultStorageTest extends UserRepositoryContractTest {
+
+    @Override
+    protected UserRepository createStorage() {
+        return new UserDefaultStorage();
+    }
+
+    @Test
+    @DisplayName("Reads and writes of other IDs go on while a write waits for the log")
+    void givenWriteBlockedInLog_whenReadingAndWritingSameSegment_thenNothingWaits() throws Exception {
+        //given
+        BlockingChangeLog changeLog = new BlockingChangeLog();
+        UserDefaultStorage blockingStorage = new UserDefaultStorage(changeLog);
+        for (int i = 0; i < 65; i++) {
+            blockingStorage.save(UserUtil.getSyntheticUser(i));
+        }
+        changeLog.blockNextAppend();
+        CompletableFuture<User> blockedUpdate = CompletableFuture.supplyAsync(
+                () -> blockingStorage.update(User.builder().id(1L).address("Blocked street 1").build()));
+        assertTrue(changeLog.appendStarted.await(10, TimeUnit.SECONDS));
+
+        //when
+        User sameId = CompletableFuture.supplyAsync(() -> blockingStorage.getById(1).orElseThrow())
+                .get(10, TimeUnit.SECONDS);
+        User sameSegment = CompletableFuture.supplyAsync(() -> blockingStorage.getById(65).orElseThrow())
+                .get(10, TimeUnit.SECONDS);
+        User updatedInSameSegment = CompletableFuture.supplyAsync(
+                () -> blockingStorage.update(User.builder().id(65L).address("Free street 1").build()))
+                .get(10, TimeUnit.SECONDS);
+
+        //then
+        changeLog.release.countDown();
+        assertEquals("Blocked street 1", blockedUpdate.get(10, TimeUnit.SECONDS).getAddress());
+        assertEquals(1L, sameId.getId());
+        assertEquals(65L, sameSegment.getId());
+        assertEquals("Free street 1", updatedInSameSegment.getAddress());
+        assertEquals(65, blockingStorage.getAll().size());
+    }
+
+    @Test
+    @DisplayName("Pages skip the IDs of deleted users, including whole blocks of them")
+    void givenDeletedRangeOfUsers_whenGetPage_thenPagesContinueAfterTheGap() {
+        //given
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            newUsers.add(UserUtil.getSyntheticUser(i));
+        }
+        storage.saveAll(newUsers);
+        storage.deleteAll(LongStream.rangeClosed(2, 900).boxed().toList());
+
+        //when
+        List<User> firstPage = storage.getPage(0, 3);
+        List<User> nextPage = storage.getPage(firstPage.get(2).getId(), 2);
+        List<User> lastPage = storage.getPage(995, 10);
+
+        //then
+        assertEquals(List.of(1L, 901L, 902L), firstPage.stream().map(User::getId).toList());
+        assertEquals(List.of(903L, 904L), nextPage.stream().map(User::getId).toList());
+        assertEquals(List.of(996L, 997L, 998L, 999L, 1000L), lastPage.stream().map(User::getId).toList());
+        assertTrue(storage.getPage(1_000, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Writes after the log has failed leave no trace in the storage")
+    void givenFailedLog_whenWriting_thenStorageIsUnchanged() {
+        //given
+        FailingChangeLog changeLog = new FailingChangeLog();
+        UserDefaultStorage failingStorage = new UserDefaultStorage(changeLog);
+        User mark = failingStorage.save(UserUtil.getMarkBohnDto().toEntity());
+        User lisa = failingStorage.save(UserUtil.getLisa40YearsPersisted());
+        changeLog.failed = true;
+        User newUser = UserUtil.getSyntheticUser(1);
+
+        //when
+        assertThrows(IllegalStateException.class, () -> failingStorage.save(newUser));
+        assertThrows(IllegalStateException.class, () -> failingStorage.saveAll(List.of(UserUtil.getSyntheticUser(2))));
+        assertThrows(IllegalStateException.class,
+                () -> failingStorage.update(User.builder().id(mark.getId()).firstName("Markiyan").build()));
+        assertThrows(IllegalStateException.class,
+                () -> failingStorage.updateAll(List.of(User.builder().id(mark.getId()).address("Park Avenue").build())));
+        assertThrows(IllegalStateException.class, () -> failingStorage.delete(lisa.getId()));
+        assertThrows(IllegalStateException.class, () -> failingStorage.deleteAll(List.of(lisa.getId())));
+
+        //then
+        assertEquals(2, failingStorage.count());
+        User storedMark = failingStorage.getById(mark.getId()).orElseThrow();
+        assertEquals(mark.getFirstName(), storedMark.getFirstName());
+        assertEquals(mark.getAddress(), storedMark.getAddress());
+        assertEquals(1, storedMark.getVersion());
+        assertTrue(failingStorage.searchByNamePrefix("markiyan", 10).isEmpty());
+        assertTrue(failingStorage.searchByAddress("avenue park", 10).isEmpty());
+        assertTrue(failingStorage.isExist(lisa.getId()));
+        assertTrue(failingStorage.getByEmail(newUser.getEmail()).isEmpty());
+        assertTrue(failingStorage.getByEmail(UserUtil.getSyntheticUser(2).getEmail()).isEmpty());
+        assertEquals(List.of(mark.getId(), lisa.getId()),
+                failingStorage.getPage(0, 10).stream().map(User::getId).toList());
+    }
+
+    /**
+     * A log whose appends fail once it is marked as failed, like a log whose writer has failed.
+     */
+    private static final class FailingChangeLog implements UserChangeLog {
+        private volatile boolean failed;
+        private long position;
+
+        @Override
+        public void replay(long afterPosition, Consumer<User> onSave, LongConsumer onDelete) {
+        }
+
+        @Override
+        public synchronized long position() {
+            return position;
+        }
+
+        @Override
+        public void checkWritable() {
+            if (failed) {
+                throw new IllegalStateException("Log failed");
+            }
+        }
+
+        @Override
+        public long appendSave(User user) {
+            return next();
+        }
+
+        @Override
+        public long appendDelete(long id) {
+            return next();
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public void discardThrough(long position) {
+        }
+
+        private synchronized long next() {
+            checkWritable();
+            return ++position;
+        }
+    }
+
+    /**
+     * A log that can hold up one append until it is released.
+     */
+    private static final class BlockingChangeLog implements UserChangeLog {
+        private final CountDownLatch appendStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockNext;
+        private long position;
+
+        void blockNextAppend() {
+            blockNext = true;
+        }
+
+        @Override
+        public void replay(long afterPosition, Consumer<User> onSave, LongConsumer onDelete) {
+        }
+
+        @Override
+        public synchronized long position() {
+            return position;
+        }
+
+        @Override
+        public long appendSave(User user) {
+            if (blockNext) {
+                blockNext = false;
+                appendStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return next();
+        }
+
+        @Override
+        public long appendDelete(long id) {
+            return next();
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public void discardThrough(long position) {
+        }
+
+        private synchronized long next() {
+            return ++position;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package ua.mykola.UserRESTfulAPI.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link UserRepository} implementation must have,
+ * including under concurrent access.
+ */
+abstract class UserRepositoryContractTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    protected final UserRepository storage = createStorage();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    protected abstract UserRepository createStorage();
+
+    @AfterEach
+    void shutdownExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Updating user keeps the stored instance unchanged")
+    void givenStoredUser_whenUpdate_thenNewInstanceIsStored() {
+        //given
+        User stored = storage.save(newMark());
+
+        //when
+        User updated = storage.update(User.builder().id(stored.getId()).firstName("Markiyan").build());
+
+        //then
+        assertEquals("Mark", stored.getFirstName());
+        assertEquals("Markiyan", updated.getFirstName());
+        assertEquals(stored.getLastName(), updated.getLastName());
+        assertEquals(stored.getEmail(), updated.getEmail());
+        assertEquals("Markiyan", storage.getById(stored.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    @DisplayName("Every update increments the version of the user")
+    void givenStoredUser_whenUpdateTwice_thenVersionIsIncremented() {
+        //given
+        User stored = storage.save(newMark());
+
+        //when
+        storage.update(User.builder().id(stored.getId()).firstName("Markiyan").build());
+        User updated = storage.updateAll(List.of(User.builder().id(stored.getId()).lastName("Bohn").build())).get(0);
+
+        //then
+        assertEquals(1, stored.getVersion());
+        assertEquals(3, updated.getVersion());
+        assertEquals(3, storage.getById(stored.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Updating non-existent user")
+    void givenNonExistentUser_whenUpdate_thenNullIsReturned() {
+        //when
+        User updated = storage.update(User.builder().id(1L).firstName("Mark").build());
+
+        //then
+        assertNull(updated);
+        assertFalse(storage.isExist(1L));
+    }
+
+    @Test
+    @DisplayName("Getting users by birth date range")
+    void givenUsersWithDifferentBirthDates_whenGetByBirthDateRange_thenOnlyUsersInRangeAreReturned() {
+        //given
+        storage.save(UserUtil.getLisa40YearsPersisted());
+        User alex = storage.save(UserUtil.getAlex30YearsPersisted());
+        LocalDate from = LocalDate.now().minusYears(35);
+
+        //when
+        List<User> foundUsers = storage.getByBirthDateRange(from, LocalDate.now());
+        List<User> boundaryUsers = storage.getByBirthDateRange(alex.getBirthDate(), LocalDate.now());
+        List<User> reversedRange = storage.getByBirthDateRange(LocalDate.now(), from);
+
+        //then
+        assertEquals(List.of(alex.getId()), foundUsers.stream().map(User::getId).toList());
+        assertTrue(boundaryUsers.isEmpty());
+        assertTrue(reversedRange.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Birth date index follows updates and deletes")
+    void givenUpdatedAndDeletedUsers_whenGetByBirthDateRange_thenIndexIsInSync() {
+        //given
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+        User alex = storage.save(UserUtil.getAlex30YearsPersisted());
+        LocalDate from = LocalDate.now().minusYears(35);
+
+        //when
+        storage.update(User.builder().id(lisa.getId()).birthDate(LocalDate.now().minusYears(25)).build());
+        storage.delete(alex.getId());
+
+        //then
+        List<User> foundUsers = storage.getByBirthDateRange(from, LocalDate.now());
+        assertEquals(List.of(lisa.getId()), foundUsers.stream().map(User::getId).toList());
+        assertTrue(storage.getByBirthDateRange(LocalDate.now().minusYears(45), from).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Saving users concurrently")
+    void givenConcurrentSaves_whenSave_thenEveryUserGetsUniqueId() throws Exception {
+        //when
+        List<List<Long>> savedIds = runConcurrently(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ids.add(storage.save(newMark()).getId());
+            }
+            return ids;
+        });
+
+        //then
+        Set<Long> uniqueIds = new HashSet<>();
+        savedIds.forEach(uniqueIds::addAll);
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, uniqueIds.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, storage.getAll().size());
+    }
+
+    @Test
+    @DisplayName("Updating the same user concurrently")
+    void givenConcurrentUpdatesOfOneUser_whenUpdate_thenNoTornRecordIsObserved() throws Exception {
+        //given
+        User mark = storage.save(newMark());
+        long id = mark.getId();
+        AtomicBoolean tornRead = new AtomicBoolean();
+
+        //when
+        runConcurrently(() -> {
+            String name = "Name" + Thread.currentThread().getId();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                storage.update(User.builder().id(id).firstName(name).lastName(name).build());
+                User read = storage.getById(id).orElseThrow();
+                if (!read.getFirstName().equals(read.getLastName())
+                        && !"Mark".equals(read.getFirstName())) {
+                    tornRead.set(true);
+                }
+            }
+            return null;
+        });
+
+        //then
+        User result = storage.getById(id).orElseThrow();
+        assertFalse(tornRead.get());
+        assertEquals(result.getFirstName(), result.getLastName());
+        assertEquals(mark.getEmail(), result.getEmail());
+    }
+
+    @Test
+    @DisplayName("Conditional update with the current version")
+    void givenCurrentVersion_whenConditionalUpdate_thenUserIsUpdated() {
+        //given
+        User stored = storage.save(newMark());
+
+        //when
+        User updated = storage.update(User.builder().id(stored.getId()).firstName("Markiyan").build(), 1);
+
+        //then
+        assertEquals("Markiyan", updated.getFirstName());
+        assertEquals(2, storage.getById(stored.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Conditional update with an outdated version leaves the user unchanged")
+    void givenOutdatedVersion_whenConditionalUpdate_thenExceptionIsThrown() {
+        //given
+        User stored = storage.save(newMark());
+        storage.update(User.builder().id(stored.getId()).lastName("Bohn").build());
+
+        //when
+        assertThrows(PreconditionFailedException.class,
+                () -> storage.update(User.builder().id(stored.getId()).firstName("Markiyan").build(), 1));
+
+        //then
+        User found = storage.getById(stored.getId()).orElseThrow();
+        assertEquals("Mark", found.getFirstName());
+        assertEquals(2, found.getVersion());
+        assertNull(storage.update(User.builder().id(stored.getId() + 1).firstName("Markiyan").build(), 1));
+    }
+
+    @Test
+    @DisplayName("Concurrent conditional updates of one user never lose an update")
+    void givenConcurrentConditionalUpdates_whenUpdate_thenEveryVersionHasOneWriter() throws Exception {
+        //given
+        long id = storage.save(newMark()).getId();
+
+        //when
+        List<Integer> successes = runConcurrently(() -> {
+            int succeeded = 0;
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                long version = storage.getById(id).orElseThrow().getVersion();
+                try {
+                    storage.update(User.builder().id(id).phoneNumber("555" + i).build(), version);
+                    succeeded++;
+                } catch (PreconditionFailedException ex) {
+                    // Another thread updated the user first
+                }
+            }
+            return succeeded;
+        });
+
+        //then
+        int totalSuccesses = successes.stream().mapToInt(Integer::intValue).sum();
+        assertTrue(totalSuccesses > 0);
+        assertEquals(1 + totalSuccesses, storage.getById(id).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Mixing save, update, delete and getAll concurrently")
+    void givenMixedConcurrentOperations_whenRun_thenStorageStaysConsistent() throws Exception {
+        //when
+        List<List<Long>> survivingIds = runConcurrently(() -> {
+            List<Long> kept = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                long id = storage.save(newMark()).getId();
+                storage.update(User.builder().id(id).phoneNumber("555").build());
+                if (i % 2 == 0) {
+                    storage.delete(id);
+                } else {
+                    kept.add(id);
+                }
+                if (i % 100 == 0) {
+                    storage.getAll().forEach(user -> assertEquals("Mark", user.getFirstName()));
+                }
+            }
+            return kept;
+        });
+
+        //then
+        int expectedSize = survivingIds.stream().mapToInt(List::size).sum();
+        assertEquals(expectedSize, storage.getAll().size());
+        survivingIds.forEach(ids -> ids.forEach(id ->
+                assertEquals("555", storage.getById(id).orElseThrow().getPhoneNumber())));
+    }
+
+    private User newMark() {
+        User user = UserUtil.getMarkBohnDto().toEntity();
+        user.setEmail("mark" + emailSequence.incrementAndGet() + "@gmail.com");
+        return user;
+    }
+
+    private <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @Test
+    @DisplayName("Paging through users by id")
+    void givenUsers_whenGetPage_thenPagesFollowIdOrder() {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(storage.save(newMark()).getId());
+        }
+        storage.delete(ids.get(1));
+
+        //when
+        List<User> firstPage = storage.getPage(0, 2);
+        List<User> secondPage = storage.getPage(firstPage.get(1).getId(), 2);
+        List<User> lastPage = storage.getPage(secondPage.get(1).getId(), 2);
+
+        //then
+        assertEquals(List.of(ids.get(0), ids.get(2)), firstPage.stream().map(User::getId).toList());
+        assertEquals(List.of(ids.get(3), ids.get(4)), secondPage.stream().map(User::getId).toList());
+        assertTrue(lastPage.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Saving users in batch")
+    void givenUsers_whenSaveAll_thenIdsAreAllocatedAsOneBlock() {
+        //given
+        storage.save(newMark());
+        List<User> newUsers = List.of(UserUtil.getLisa40YearsPersisted(), UserUtil.getAlex30YearsPersisted());
+
+        //when
+        List<User> savedUsers = storage.saveAll(newUsers);
+
+        //then
+        assertEquals(List.of(2L, 3L), savedUsers.stream().map(User::getId).toList());
+        assertEquals("Alex", storage.getById(3L).orElseThrow().getFirstName());
+        assertEquals(4L, storage.save(newMark()).getId());
+    }
+
+    @Test
+    @DisplayName("Updating and deleting users in batch")
+    void givenExistingAndNonExistentIds_whenUpdateAllAndDeleteAll_thenOnlyExistingUsersAreAffected() {
+        //given
+        User mark = storage.save(newMark());
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+
+        //when
+        List<User> updatedUsers = storage.updateAll(List.of(
+                User.builder().id(mark.getId()).phoneNumber("555").build(),
+                User.builder().id(100L).phoneNumber("555").build()));
+        List<Long> deletedIds = storage.deleteAll(List.of(lisa.getId(), 100L, lisa.getId()));
+
+        //then
+        assertEquals("555", updatedUsers.get(0).getPhoneNumber());
+        assertNull(updatedUsers.get(1));
+        assertEquals(List.of(lisa.getId()), deletedIds);
+        assertEquals(List.of(mark.getId()), storage.getAll().stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Changes to one user in a batch are applied in order")
+    void givenRepeatedIdInBatch_whenUpdateAll_thenChangesAreAppliedInOrder() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+
+        //when
+        List<User> updatedUsers = storage.updateAll(List.of(
+                User.builder().id(mark.getId()).address("Park Avenue").build(),
+                User.builder().id(lisa.getId()).phoneNumber("555").build(),
+                User.builder().id(mark.getId()).firstName("Markiyan").build()));
+
+        //then
+        assertEquals(3, updatedUsers.get(2).getVersion());
+        User storedMark = storage.getById(mark.getId()).orElseThrow();
+        assertEquals("Markiyan", storedMark.getFirstName());
+        assertEquals("Park Avenue", storedMark.getAddress());
+        assertEquals(3, storedMark.getVersion());
+        assertEquals("555", storage.getById(lisa.getId()).orElseThrow().getPhoneNumber());
+        assertEquals(List.of(mark.getId()),
+                storage.searchByAddress("avenue park", 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Counting users follows saves and deletes")
+    void givenSavedAndDeletedUsers_whenCount_thenOnlyStoredUsersAreCounted() {
+        //given
+        User mark = storage.save(newMark());
+        storage.saveAll(List.of(UserUtil.getLisa40YearsPersisted(), UserUtil.getAlex30YearsPersisted()));
+        storage.delete(mark.getId());
+
+        //when
+        long count = storage.count();
+
+        //then
+        assertEquals(2, count);
+    }
+
+    @Test
+    @DisplayName("Saving user with taken email")
+    void givenTakenEmailInOtherCase_whenSave_thenExceptionIsThrown() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User duplicate = UserUtil.getMarkBohnDto().toEntity();
+        duplicate.setEmail(" MARK@gmail.com");
+
+        //when
+        ConflictException ex = assertThrows(ConflictException.class, () -> storage.save(duplicate));
+
+        //then
+        assertEquals("User with email: MARK@gmail.com already exists", ex.getMessage());
+        assertEquals(mark.getId(), storage.getByEmail("Mark@Gmail.com").orElseThrow().getId());
+        assertEquals(1, storage.getAll().size());
+    }
+
+    @Test
+    @DisplayName("Email is released when user is deleted")
+    void givenDeletedUser_whenSaveWithSameEmail_thenUserIsSaved() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        storage.delete(mark.getId());
+
+        //when
+        User newMark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+
+        //then
+        assertEquals(newMark.getId(), storage.getByEmail("mark@gmail.com").orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("Saving users with the same email concurrently")
+    void givenConcurrentSavesWithSameEmail_whenSave_thenOnlyOneSucceeds() throws Exception {
+        //when
+        List<Integer> savedCounts = runConcurrently(() -> {
+            int saved = 0;
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                User user = UserUtil.getMarkBohnDto().toEntity();
+                user.setEmail("user" + i + "@gmail.com");
+                List<User> savedUsers = storage.saveAll(List.of(user));
+                if (savedUsers.get(0) != null) {
+                    saved++;
+                }
+            }
+            return saved;
+        });
+
+        //then
+        assertEquals(OPERATIONS_PER_THREAD, savedCounts.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(OPERATIONS_PER_THREAD, storage.getAll().size());
+    }
+
+    @Test
+    @DisplayName("Searching users by name prefix")
+    void givenUsers_whenSearchByNamePrefix_thenUsersWithMatchingFirstOrLastNameAreReturned() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+        User alex = storage.save(UserUtil.getAlex30YearsPersisted());
+
+        //when
+        List<User> bohns = storage.searchByNamePrefix("bo", 10);
+        List<User> limited = storage.searchByNamePrefix("BO", 1);
+        List<User> alexes = storage.searchByNamePrefix("Al", 10);
+
+        //then
+        assertEquals(List.of(mark.getId(), lisa.getId()), bohns.stream().map(User::getId).toList());
+        assertEquals(1, limited.size());
+        assertEquals(List.of(alex.getId()), alexes.stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Name prefix index follows updates and deletes")
+    void givenUpdatedAndDeletedUsers_whenSearchByNamePrefix_thenIndexIsInSync() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+
+        //when
+        storage.update(User.builder().id(mark.getId()).lastName("Smith").build());
+        storage.delete(lisa.getId());
+
+        //then
+        assertTrue(storage.searchByNamePrefix("Bohn", 10).isEmpty());
+        assertEquals(List.of(mark.getId()),
+                storage.searchByNamePrefix("smi", 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Searching users by address words")
+    void givenUsersWithAddresses_whenSearchByAddress_thenUsersWithAllWordsAreReturned() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+        storage.update(User.builder().id(lisa.getId()).address("Main Street 1, Kyiv").build());
+
+        //when
+        List<User> streetUsers = storage.searchByAddress("street", 10);
+        List<User> kyivUsers = storage.searchByAddress("KYIV street", 10);
+        List<User> unknownUsers = storage.searchByAddress("street Lviv", 10);
+
+        //then
+        assertEquals(List.of(mark.getId(), lisa.getId()), streetUsers.stream().map(User::getId).toList());
+        assertEquals(List.of(lisa.getId()), kyivUsers.stream().map(User::getId).toList());
+        assertTrue(unknownUsers.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Address search pages through long posting lists up to the limit")
+    void givenManyUsersOnOneStreet_whenSearchByAddress_thenFirstMatchesUpToLimitAreReturned() {
+        //given
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            User user = UserUtil.getSyntheticUser(i);
+            user.setAddress(i % 3 == 0 ? "Main Street Corner" : "Main Street");
+            newUsers.add(user);
+        }
+        List<Long> ids = storage.saveAll(newUsers).stream().map(User::getId).toList();
+
+        //when
+        List<User> streetUsers = storage.searchByAddress("street", 250);
+        List<User> cornerUsers = storage.searchByAddress("corner main", 90);
+
+        //then
+        assertEquals(ids.subList(0, 250), streetUsers.stream().map(User::getId).toList());
+        List<Long> cornerIds = new ArrayList<>();
+        for (int i = 0; i < 270; i += 3) {
+            cornerIds.add(ids.get(i));
+        }
+        assertEquals(cornerIds, cornerUsers.stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Address index follows updates and deletes")
+    void givenUpdatedAndDeletedUsers_whenSearchByAddress_thenIndexIsInSync() {
+        //given
+        User mark = storage.save(UserUtil.getMarkBohnDto().toEntity());
+        User lisa = storage.save(UserUtil.getLisa40YearsPersisted());
+
+        //when
+        storage.update(User.builder().id(mark.getId()).address("Park Avenue").build());
+        storage.delete(lisa.getId());
+
+        //then
+        assertTrue(storage.searchByAddress("str", 10).isEmpty());
+        assertEquals(List.of(mark.getId()),
+                storage.searchByAddress("avenue park", 10).stream().map(User::getId).toList());
+    }
+}
@@ -0,0 +1,92 @@
+package ua.mykola.UserRESTfulAPI.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointMetricsInterceptorTest {
+    private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final HandlerMethod handler = handler();
+
+    @Test
+    @DisplayName("Timing requests on a pooled thread does not allocate")
+    void givenWarmInterceptor_whenTimingRequests_thenNothingIsAllocated() {
+        //given
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        EndpointMetricsInterceptor interceptor = new EndpointMetricsInterceptor(registry, false);
+        for (int i = 0; i < 3_000_000; i++) {
+            timeRequest(interceptor);
+        }
+
+        //when
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000_000; i++) {
+            timeRequest(interceptor);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        //then
+        assertTrue(allocated < 1_024, "allocated " + allocated + " bytes");
+        assertEquals(4_000_000, timer().count());
+    }
+
+    @Test
+    @DisplayName("An asynchronous request is timed up to the end of the dispatch that completes it")
+    void givenAsyncRequest_whenCompletedOnAsyncDispatch_thenRequestIsTimed() throws Exception {
+        //given
+        EndpointMetricsInterceptor interceptor = new EndpointMetricsInterceptor(registry, true);
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        request.setDispatcherType(DispatcherType.ASYNC);
+
+        //when
+        Thread dispatch = new Thread(() -> {
+            interceptor.preHandle(request, response, handler);
+            interceptor.afterCompletion(request, response, handler, null);
+        });
+        dispatch.start();
+        dispatch.join();
+
+        //then
+        assertEquals(1, timer().count());
+    }
+
+    private void timeRequest(EndpointMetricsInterceptor interceptor) {
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+    }
+
+    private Timer timer() {
+        return registry.get(EndpointMetricsInterceptor.TIMER_NAME).tag("endpoint", "getById").timer();
+    }
+
+    private static HandlerMethod handler() {
+        try {
+            return new HandlerMethod(new Endpoint(), Endpoint.class.getMethod("getById", long.class));
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Stands in for a controller whose method is timed.
+     */
+    public static class Endpoint {
+        public String getById(long id) {
+            return String.valueOf(id);
+        }
+    }
+}
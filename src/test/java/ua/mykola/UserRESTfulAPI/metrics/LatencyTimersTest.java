@@ -0,0 +1,64 @@
+package ua.mykola.UserRESTfulAPI.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyTimersTest {
+    private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    @Test
+    @DisplayName("Timers publish p50, p99 and p999 and a histogram for Prometheus")
+    void givenRecordedLatencies_whenScrape_thenPercentilesAndBucketsArePublished() {
+        //given
+        Timer timer = LatencyTimers.register(registry, "users.test", "Test latency", "method", "getById");
+
+        //when
+        for (int i = 1; i <= 1_000; i++) {
+            timer.record(i, TimeUnit.MICROSECONDS);
+        }
+        ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+        String scrape = registry.scrape();
+
+        //then
+        assertEquals(1_000, timer.count());
+        assertEquals(Arrays.asList(0.5, 0.99, 0.999), Arrays.stream(percentiles).map(ValueAtPercentile::percentile).toList());
+        assertEquals(500, percentiles[0].value(TimeUnit.MICROSECONDS), 25);
+        assertEquals(990, percentiles[1].value(TimeUnit.MICROSECONDS), 25);
+        assertTrue(scrape.contains("users_test_seconds{method=\"getById\",quantile=\"0.999\""));
+        assertTrue(scrape.contains("users_test_seconds_bucket{method=\"getById\",le=\"1.0E-6\""));
+    }
+
+    @Test
+    @DisplayName("Recording a latency does not allocate")
+    void givenWarmTimer_whenRecord_thenNothingIsAllocated() {
+        //given
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Timer timer = LatencyTimers.register(registry, "users.test", "Test latency", "method", "getById");
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1_000_000; i++) {
+                timer.record(i * 10L, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        //when
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000_000; i++) {
+            timer.record(i * 10L, TimeUnit.NANOSECONDS);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        //then
+        assertTrue(allocated < 1_024, "allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,99 @@
+package ua.mykola.UserRESTfulAPI.rest.caching;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ua.mykola.UserRESTfulAPI.entity.User;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EncodedUserJsonModuleTest {
+    private final ObjectMapper encodingMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new EncodedUserJsonModule())
+            .build();
+    private final ObjectMapper plainMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    @DisplayName("The JSON of a stored user is encoded once and written as it is by later responses")
+    void givenStoredUser_whenSerializedTwice_thenEncodedJsonIsReused() throws Exception {
+        //given
+        UserDto userDto = UserDto.fromStoredEntity(UserUtil.getMarkBohnPersisted());
+        String expected = plainMapper.writeValueAsString(UserDto.fromEntity(UserUtil.getMarkBohnPersisted()));
+
+        //when
+        String first = new String(encodingMapper.writeValueAsBytes(userDto));
+        EncodedJson encodedJson = userDto.getEncodedJson();
+        String second = new String(encodingMapper.writeValueAsBytes(userDto));
+
+        //then
+        assertEquals(expected, first);
+        assertEquals(expected, second);
+        assertEquals(expected, encodedJson.getValue());
+        assertSame(encodedJson, userDto.getEncodedJson());
+    }
+
+    @Test
+    @DisplayName("A list splices the JSON of stored users between users written by the bean serializer")
+    void givenStoredAndNewUsers_whenListSerialized_thenJsonMatchesBeanSerializer() throws Exception {
+        //given
+        User lisa = UserUtil.getLisa40YearsPersisted();
+        User alex = UserUtil.getAlex30YearsPersisted();
+        UserDto newUser = UserUtil.getMarkBohnDto();
+        List<UserDto> users = List.of(UserDto.fromStoredEntity(lisa), newUser, UserDto.fromStoredEntity(alex));
+        encodingMapper.writeValueAsBytes(users);
+
+        //when
+        String json = new String(encodingMapper.writeValueAsBytes(users));
+        String chars = encodingMapper.writeValueAsString(users);
+
+        //then
+        String expected = plainMapper.writeValueAsString(List.of(UserDto.fromEntity(lisa), newUser, UserDto.fromEntity(alex)));
+        assertEquals(expected, json);
+        assertEquals(expected, chars);
+        assertNull(newUser.getEncodedJson());
+    }
+
+    @Test
+    @DisplayName("An updated user is written with its new data")
+    void givenUpdatedUser_whenSerialized_thenNewJsonIsWritten() throws Exception {
+        //given
+        User stored = UserUtil.getMarkBohnPersisted();
+        UserDto before = UserDto.fromStoredEntity(stored);
+        String previous = encodingMapper.writeValueAsString(before);
+        User updated = UserUtil.copyOf(stored);
+        updated.setAddress("Updated street 1");
+
+        //when
+        UserDto after = UserDto.fromStoredEntity(updated);
+        String current = encodingMapper.writeValueAsString(after);
+
+        //then
+        assertNotSame(before, after);
+        assertNotEquals(previous, current);
+        assertEquals(plainMapper.writeValueAsString(UserDto.fromEntity(updated)), current);
+    }
+
+    @Test
+    @DisplayName("Pretty-printed output indents stored users as the bean serializer does")
+    void givenIndentedOutput_whenStoredUserSerialized_thenJsonIsIndented() throws Exception {
+        //given
+        UserDto userDto = UserDto.fromStoredEntity(UserUtil.getMarkBohnPersisted());
+        encodingMapper.writeValueAsBytes(userDto);
+
+        //when
+        String json = encodingMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(List.of(userDto));
+
+        //then
+        assertEquals(plainMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(List.of(userDto)), json);
+    }
+}
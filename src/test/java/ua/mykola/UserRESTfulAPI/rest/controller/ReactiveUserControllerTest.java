@@ -0,0 +1,256 @@
+package ua.mykola.UserRESTfulAPI.rest.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
+import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
+import ua.mykola.UserRESTfulAPI.rest.caching.VersionETag;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.pagination.IdCursor;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+import ua.mykola.UserRESTfulAPI.service.ReactiveUserService;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+@Import(SimpleMeterRegistry.class)
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUserService userService;
+
+    @Test
+    @DisplayName("Registration user")
+    void givenUserDto_whenRegisterUser_thenCreatedResponse() {
+        //given
+        UserDto savedUserDto = UserUtil.getMarkBohnPersistedDto();
+        given(userService.save(any(UserDto.class))).willReturn(Mono.just(savedUserDto));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(UserUtil.getMarkBohnDto())
+                .exchange();
+
+        //then
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(savedUserDto.getId())
+                .jsonPath("$.email").isEqualTo(savedUserDto.getEmail());
+    }
+
+    @Test
+    @DisplayName("Registration user with invalid data is rejected before the service")
+    void givenInvalidUserDto_whenRegisterUser_thenBadRequestResponse() {
+        //given
+        UserDto invalidUser = UserUtil.getMarkBohnDto();
+        invalidUser.setFirstName("");
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(invalidUser)
+                .exchange();
+
+        //then
+        response.expectStatus().isBadRequest();
+        verify(userService, never()).save(any(UserDto.class));
+    }
+
+    @Test
+    @DisplayName("Registration of underage user")
+    void givenUnderageUserDto_whenRegisterUser_thenBadRequestResponse() {
+        //given
+        given(userService.save(any(UserDto.class))).willReturn(Mono.error(
+                new UnderagePersonException("Registration of users under 18 years of age is not permitted")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(UserUtil.getLeoUnder18YearsDto())
+                .exchange();
+
+        //then
+        response.expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Registration of users under 18 years of age is not permitted");
+    }
+
+    @Test
+    @DisplayName("All users are streamed as newline-delimited JSON")
+    void givenUsers_whenGetAllAsNdjson_thenOneUserPerLine() {
+        //given
+        given(userService.getAll()).willReturn(Flux.just(
+                UserDto.fromEntity(UserUtil.getLisa40YearsPersisted()),
+                UserDto.fromEntity(UserUtil.getAlex30YearsPersisted())));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserDto.class).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A full page of users links to the next page")
+    void givenFullPage_whenGetAllWithLimit_thenNextPageIsLinked() {
+        //given
+        UserDto lastUser = UserDto.fromEntity(UserUtil.getAlex30YearsPersisted());
+        given(userService.getPage(0, 2)).willReturn(Flux.just(
+                UserDto.fromEntity(UserUtil.getLisa40YearsPersisted()), lastUser));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/users?limit=2").exchange();
+
+        //then
+        response.expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, link -> assertTrue(
+                        link.contains("cursor=" + IdCursor.encode(lastUser.getId()))))
+                .expectBodyList(UserDto.class).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A page size above the maximum is rejected")
+    void givenTooLargeLimit_whenGetAll_thenBadRequestResponse() {
+        //given
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get()
+                .uri("/users?limit=" + (UserRequests.MAX_PAGE_SIZE + 1))
+                .exchange();
+
+        //then
+        response.expectStatus().isBadRequest();
+        verify(userService, never()).getPage(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Get user by id carries an ETag and answers a matching If-None-Match with 304")
+    void givenKnownVersion_whenGetById_thenNotModifiedResponse() {
+        //given
+        UserDto user = UserUtil.getMarkBohnPersistedDto();
+        user.setVersion(3L);
+        given(userService.getById(eq(1L), any(LongPredicate.class))).willAnswer(invocation -> {
+            LongPredicate isKnownVersion = invocation.getArgument(1);
+            return isKnownVersion.test(user.getVersion()) ? Mono.empty() : Mono.just(user);
+        });
+        String eTag = VersionETag.encode(3L);
+
+        //when
+        WebTestClient.ResponseSpec first = webTestClient.get().uri("/users/1").exchange();
+        WebTestClient.ResponseSpec second = webTestClient.get().uri("/users/1")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange();
+
+        //then
+        first.expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+        second.expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Get user by id that does not exist")
+    void givenMissingUser_whenGetById_thenNotFoundResponse() {
+        //given
+        given(userService.getById(eq(1L), any(LongPredicate.class)))
+                .willReturn(Mono.error(new NotFoundException("User by id:1 was not found")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/users/1").exchange();
+
+        //then
+        response.expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("User by id:1 was not found");
+    }
+
+    @Test
+    @DisplayName("Update with a stale If-Match is rejected with 412")
+    void givenStaleIfMatch_whenUpdate_thenPreconditionFailedResponse() {
+        //given
+        given(userService.update(eq(1L), any(UserDto.class), eq(2L)))
+                .willReturn(Mono.error(new PreconditionFailedException("User by id:1 has another version")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.patch().uri("/users/1")
+                .header(HttpHeaders.IF_MATCH, VersionETag.encode(2L))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(UserUtil.getMarkBohnToUpdateDto())
+                .exchange();
+
+        //then
+        response.expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @DisplayName("Batch registration reports invalid items next to the saved ones")
+    void givenMixedBatch_whenRegisterAll_thenMultiStatusInRequestOrder() {
+        //given
+        UserDto invalidUser = UserUtil.getMarkBohnDto();
+        invalidUser.setEmail("not-an-email");
+        given(userService.saveAll(anyList())).willReturn(Mono.just(List.of(BatchItemResult.builder()
+                .id(1L)
+                .status(HttpStatus.CREATED.value())
+                .build())));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(invalidUser, UserUtil.getMarkBohnDto()))
+                .exchange();
+
+        //then
+        response.expectStatus().isEqualTo(HttpStatus.MULTI_STATUS)
+                .expectBody()
+                .jsonPath("$[0].index").isEqualTo(0)
+                .jsonPath("$[0].status").isEqualTo(HttpStatus.BAD_REQUEST.value())
+                .jsonPath("$[1].index").isEqualTo(1)
+                .jsonPath("$[1].status").isEqualTo(HttpStatus.CREATED.value());
+    }
+
+    @Test
+    @DisplayName("Delete user that does not exist")
+    void givenMissingUser_whenDelete_thenNotFoundResponse() {
+        //given
+        given(userService.delete(1L)).willReturn(Mono.error(new NotFoundException("User by id:1 was not found")));
+
+        //when
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/users/1").exchange();
+
+        //then
+        response.expectStatus().isNotFound();
+    }
+}
@@ -1,40 +1,59 @@
 package ua.mykola.UserRESTfulAPI.rest.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import ua.mykola.UserRESTfulAPI.rest.cbor.UserCborHttpMessageConverter;
 import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.pagination.IdCursor;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
+import ua.mykola.UserRESTfulAPI.exception.ConflictException;
 import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
 import ua.mykola.UserRESTfulAPI.service.UserService;
 import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongPredicate;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 
 @WebMvcTest
+@Import(SimpleMeterRegistry.class)
 class UserControllerTest {
 
     @Autowired
@@ -43,6 +62,12 @@ class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserCborHttpMessageConverter cborConverter;
+
     @MockBean
     private UserService userService;
 
@@ -262,7 +287,7 @@ class UserControllerTest {
     public void givenId_whenGetById_thenSuccessResponse() throws Exception {
         //given
         UserDto user = UserUtil.getMarkBohnPersistedDto();
-        given(userService.getById(anyLong())).willReturn(user);
+        given(userService.getById(anyLong(), any())).willReturn(Optional.of(user));
 
         //when
         ResultActions result = mockMvc.perform(get("/users/1"));
@@ -273,11 +298,78 @@ class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(user.getEmail())));
     }
 
+    @Test
+    @DisplayName("Getting user by id returns the ETag of its version")
+    public void givenUserVersion_whenGetById_thenETagIsReturned() throws Exception {
+        //given
+        UserDto user = UserUtil.getMarkBohnPersistedDto();
+        given(userService.getById(anyLong(), any())).willAnswer(invocation ->
+                invocation.<LongPredicate>getArgument(1).test(3) ? Optional.empty() : Optional.of(user));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/1"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(user.getEmail())));
+    }
+
+    @Test
+    @DisplayName("Getting user by id with the current ETag returns Not Modified")
+    public void givenCurrentETag_whenGetById_thenNotModifiedResponse() throws Exception {
+        //given
+        given(userService.getById(anyLong(), any())).willAnswer(invocation ->
+                invocation.<LongPredicate>getArgument(1).test(3)
+                        ? Optional.empty() : Optional.of(UserUtil.getMarkBohnPersistedDto()));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    @DisplayName("Getting user by id with an outdated ETag returns the user")
+    public void givenOutdatedETag_whenGetById_thenSuccessResponse() throws Exception {
+        //given
+        UserDto user = UserUtil.getMarkBohnPersistedDto();
+        given(userService.getById(anyLong(), any())).willAnswer(invocation ->
+                invocation.<LongPredicate>getArgument(1).test(4) ? Optional.empty() : Optional.of(user));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(user.getEmail())));
+    }
+
+    @Test
+    @DisplayName("Getting all users with the current ETag returns Not Modified")
+    public void givenCurrentETag_whenGetAll_thenNotModifiedResponse() throws Exception {
+        //given
+        given(userService.getAll(any())).willAnswer(invocation ->
+                invocation.<LongPredicate>getArgument(0).test(0x2a) ? Optional.empty() : Optional.of(List.of()));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, "\"2a\""));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2a\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
     @Test
     @DisplayName("Getting user by non-existent id")
     public void givenNonExistentId_whenGetById_thenErrorResponse() throws Exception {
         //given
-        given(userService.getById(anyLong())).willThrow(new NotFoundException(notFoundMessage));
+        given(userService.getById(anyLong(), any())).willThrow(new NotFoundException(notFoundMessage));
 
         //when
         ResultActions result = mockMvc.perform(get("/users/1"));
@@ -288,6 +380,28 @@ class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is(notFoundMessage)));
     }
 
+    @Test
+    @DisplayName("Requests are timed per endpoint and errors are counted per handler")
+    void givenNonExistentId_whenGetById_thenRequestIsTimedAndErrorIsCounted() throws Exception {
+        //given
+        given(userService.getById(anyLong(), any())).willThrow(new NotFoundException(notFoundMessage));
+        double errorsBefore = meterRegistry.counter("users.http.errors", "handler", "notFoundException").count();
+        long requestsBefore = getByIdRequests();
+
+        //when
+        mockMvc.perform(get("/users/1"));
+        mockMvc.perform(get("/users/2"));
+
+        //then
+        assertEquals(errorsBefore + 2, meterRegistry.counter("users.http.errors", "handler", "notFoundException").count());
+        assertEquals(requestsBefore + 2, getByIdRequests());
+    }
+
+    private long getByIdRequests() {
+        Timer timer = meterRegistry.find("users.http.requests").tag("endpoint", "getById").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     @Test
     @DisplayName("Deleting user by id")
     void givenId_whenDelete_thenSuccessResponse() throws Exception {
@@ -325,7 +439,7 @@ class UserControllerTest {
         UserDto user1 = UserDto.fromEntity(UserUtil.getLisa40YearsPersisted());
         UserDto user2 = UserDto.fromEntity(UserUtil.getAlex30YearsPersisted());
         List<UserDto> users = List.of(user1, user2);
-        given(userService.getAll()).willReturn(users);
+        given(userService.getAll(any())).willReturn(Optional.of(users));
 
         //when
         ResultActions result = mockMvc.perform(get("/users"));
@@ -380,6 +494,63 @@ class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(updatedUserDto.getFirstName())));
     }
 
+    @Test
+    @DisplayName("Updating user with the current ETag in If-Match")
+    public void givenCurrentETag_whenUpdateUser_thenConditionalUpdateWithNewETag() throws Exception {
+        //given
+        UserDto userToUpdate = UserUtil.getMarkBohnToUpdateDto();
+        UserDto updatedUserDto = UserDto.fromEntity(UserUtil.getUpdatedMarkBohn());
+        updatedUserDto.setVersion(11L);
+        given(userService.update(eq(1L), any(UserDto.class), eq(10L))).willReturn(updatedUserDto);
+
+        //when
+        ResultActions result = mockMvc.perform(patch("/users/1")
+                .header(HttpHeaders.IF_MATCH, "\"a\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userToUpdate)));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"b\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is(updatedUserDto.getFirstName())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").doesNotExist());
+        verify(userService, never()).update(anyLong(), any(UserDto.class));
+    }
+
+    @Test
+    @DisplayName("Updating user with an outdated ETag in If-Match")
+    public void givenOutdatedETag_whenUpdateUser_thenPreconditionFailedResponse() throws Exception {
+        //given
+        String message = "User by id:1 was changed by another request";
+        given(userService.update(eq(1L), any(UserDto.class), eq(10L))).willThrow(new PreconditionFailedException(message));
+
+        //when
+        ResultActions result = mockMvc.perform(patch("/users/1")
+                .header(HttpHeaders.IF_MATCH, "\"a\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(UserUtil.getMarkBohnToUpdateDto())));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", CoreMatchers.is(HttpStatus.PRECONDITION_FAILED.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is(message)));
+    }
+
+    @Test
+    @DisplayName("Updating user with a weak ETag in If-Match")
+    public void givenWeakETag_whenUpdateUser_thenPreconditionFailedResponse() throws Exception {
+        //when
+        ResultActions result = mockMvc.perform(patch("/users/1")
+                .header(HttpHeaders.IF_MATCH, "W/\"a\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(UserUtil.getMarkBohnToUpdateDto())));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        verify(userService, never()).update(anyLong(), any(UserDto.class), anyLong());
+        verify(userService, never()).update(anyLong(), any(UserDto.class));
+    }
+
     @Test
     @DisplayName("Updating user with incorrect first name using number in name")
     public void givenUserDtoWithIncorrectFirstNameUsingNumber_whenUpdateUser_thenErrorResponse() throws Exception {
@@ -494,4 +665,352 @@ class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is(underagePersonMessage)));
     }
 
+    @Test
+    @DisplayName("Getting a page of users")
+    public void givenLimit_whenGetAll_thenPageWithNextLinkIsReturned() throws Exception {
+        //given
+        UserDto user1 = UserDto.fromEntity(UserUtil.getLisa40YearsPersisted());
+        UserDto user2 = UserDto.fromEntity(UserUtil.getAlex30YearsPersisted());
+        given(userService.getPage(eq(0L), eq(2), any())).willReturn(Optional.of(List.of(user1, user2)));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users").param("limit", "2"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", hasSize(2)))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.LINK,
+                        "<http://localhost/users?limit=2&cursor=" + IdCursor.encode(user2.getId()) + ">; rel=\"next\""));
+        verify(userService, never()).getAll(any());
+    }
+
+    @Test
+    @DisplayName("Getting the last page of users")
+    public void givenCursor_whenGetAll_thenPageWithoutNextLinkIsReturned() throws Exception {
+        //given
+        UserDto user = UserDto.fromEntity(UserUtil.getAlex30YearsPersisted());
+        given(userService.getPage(eq(1L), eq(2), any())).willReturn(Optional.of(List.of(user)));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users")
+                .param("limit", "2")
+                .param("cursor", IdCursor.encode(1)));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(user.getEmail())))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @DisplayName("Getting a page of users with invalid cursor")
+    public void givenInvalidCursor_whenGetAll_thenErrorResponse() throws Exception {
+        //when
+        ResultActions result = mockMvc.perform(get("/users").param("cursor", "not-a-cursor"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is("Invalid cursor")));
+    }
+
+    @Test
+    @DisplayName("Getting a page of users with too large limit")
+    public void givenTooLargeLimit_whenGetAll_thenErrorResponse() throws Exception {
+        //when
+        ResultActions result = mockMvc.perform(get("/users").param("limit", "5000"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message",
+                        CoreMatchers.is("Limit must be between 1 and 1000")));
+    }
+
+    @Test
+    @DisplayName("Streaming all users as NDJSON")
+    public void givenTwoUsers_whenStream_thenOneJsonObjectPerLineIsReturned() throws Exception {
+        //given
+        UserDto user1 = UserDto.fromEntity(UserUtil.getLisa40YearsPersisted());
+        UserDto user2 = UserDto.fromEntity(UserUtil.getAlex30YearsPersisted());
+        given(userService.getPage(0, 1000)).willReturn(List.of(user1, user2));
+
+        //when
+        MvcResult started = mockMvc.perform(get("/users/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(UserController.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        objectMapper.writeValueAsString(user1) + "\n"
+                                + objectMapper.writeValueAsString(user2) + "\n"));
+        verify(userService, never()).getAll();
+    }
+
+    @Test
+    @DisplayName("Streaming all users selected by Accept header")
+    public void givenNdjsonAcceptHeader_whenGetAll_thenUsersAreStreamed() throws Exception {
+        //given
+        UserDto user = UserDto.fromEntity(UserUtil.getLisa40YearsPersisted());
+        given(userService.getPage(0, 1000)).willReturn(List.of(user));
+
+        //when
+        MvcResult started = mockMvc.perform(get("/users")
+                        .accept(UserController.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(objectMapper.writeValueAsString(user) + "\n"));
+        verify(userService, never()).getAll();
+    }
+
+    @Test
+    @DisplayName("Getting user by id as CBOR with the birth date in epoch days")
+    public void givenCborAcceptHeader_whenGetById_thenCborIsReturned() throws Exception {
+        //given
+        UserDto user = UserDto.fromEntity(UserUtil.getLisa40YearsPersisted());
+        given(userService.getById(eq(1L), any(LongPredicate.class))).willReturn(Optional.of(user));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/1")
+                .accept(MediaType.APPLICATION_CBOR));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+        JsonNode body = cborConverter.getObjectMapper().readTree(result.andReturn().getResponse().getContentAsByteArray());
+        assertEquals(user.getEmail(), body.get("email").asText());
+        assertTrue(body.get("birthDate").isIntegralNumber());
+        assertEquals(user.getBirthDate().toEpochDay(), body.get("birthDate").asLong());
+    }
+
+    @Test
+    @DisplayName("Streaming all users as a CBOR sequence")
+    public void givenCborSeqAcceptHeader_whenGetAll_thenOneCborItemPerUserIsStreamed() throws Exception {
+        //given
+        UserDto user1 = UserDto.fromEntity(UserUtil.getLisa40YearsPersisted());
+        UserDto user2 = UserDto.fromEntity(UserUtil.getAlex30YearsPersisted());
+        given(userService.getPage(0, 1000)).willReturn(List.of(user1, user2));
+
+        //when
+        MvcResult started = mockMvc.perform(get("/users")
+                        .accept(UserCborHttpMessageConverter.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(UserCborHttpMessageConverter.APPLICATION_CBOR_SEQ_VALUE));
+        List<UserDto> users = cborConverter.getObjectMapper().readerFor(UserDto.class)
+                .<UserDto>readValues(result.andReturn().getResponse().getContentAsByteArray())
+                .readAll();
+        assertEquals(2, users.size());
+        assertEquals(user1.getEmail(), users.get(0).getEmail());
+        assertEquals(user2.getBirthDate(), users.get(1).getBirthDate());
+        verify(userService, never()).getAll();
+    }
+
+    @Test
+    @DisplayName("Registration users in batch sent as CBOR")
+    public void givenCborBatch_whenRegisterAll_thenUsersAreDecodedAndCborIsReturned() throws Exception {
+        //given
+        UserDto user = UserUtil.getMarkBohnDto();
+        UserDto savedUser = UserUtil.getMarkBohnPersistedDto();
+        given(userService.saveAll(List.of(user))).willReturn(List.of(BatchItemResult.builder()
+                .index(0)
+                .status(HttpStatus.CREATED.value())
+                .user(savedUser)
+                .build()));
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+
+        //when
+        ResultActions result = mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(List.of(user))));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isMultiStatus());
+        JsonNode body = cborMapper.readTree(result.andReturn().getResponse().getContentAsByteArray());
+        assertEquals(HttpStatus.CREATED.value(), body.get(0).get("status").asInt());
+        assertEquals(savedUser.getBirthDate().toEpochDay(), body.get(0).get("user").get("birthDate").asLong());
+        verify(userService).saveAll(List.of(user));
+    }
+
+    @Test
+    @DisplayName("Registration users in batch")
+    public void givenValidAndInvalidUsers_whenRegisterAll_thenResultPerItemIsReturned() throws Exception {
+        //given
+        UserDto validUser = UserUtil.getMarkBohnDto();
+        UserDto invalidUser = UserUtil.getMarkBohnDto();
+        invalidUser.setEmail("qew.com");
+        UserDto savedUser = UserUtil.getMarkBohnPersistedDto();
+        given(userService.saveAll(List.of(validUser))).willReturn(List.of(BatchItemResult.builder()
+                .index(0)
+                .status(HttpStatus.CREATED.value())
+                .user(savedUser)
+                .build()));
+
+        //when
+        ResultActions result = mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(invalidUser, validUser))));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].index", CoreMatchers.is(0)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", CoreMatchers.is(HttpStatus.BAD_REQUEST.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].message", CoreMatchers.is("Invalid email format")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].index", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status", CoreMatchers.is(HttpStatus.CREATED.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].user.email", CoreMatchers.is(savedUser.getEmail())));
+    }
+
+    @Test
+    @DisplayName("Registration users in empty batch")
+    public void givenEmptyBatch_whenRegisterAll_thenErrorResponse() throws Exception {
+        //when
+        ResultActions result = mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message",
+                        CoreMatchers.is("Batch must contain between 1 and 1000 items")));
+    }
+
+    @Test
+    @DisplayName("Updating users in batch")
+    public void givenUsersWithAndWithoutId_whenUpdateAll_thenResultPerItemIsReturned() throws Exception {
+        //given
+        UserDto userWithId = UserUtil.getMarkBohnToUpdateDto();
+        userWithId.setId(1L);
+        UserDto userWithoutId = UserUtil.getMarkBohnToUpdateDto();
+        UserDto updatedUser = UserDto.fromEntity(UserUtil.getUpdatedMarkBohn());
+        given(userService.updateAll(List.of(userWithId))).willReturn(List.of(BatchItemResult.builder()
+                .index(0)
+                .id(1L)
+                .status(HttpStatus.OK.value())
+                .user(updatedUser)
+                .build()));
+
+        //when
+        ResultActions result = mockMvc.perform(patch("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(userWithoutId, userWithId))));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", CoreMatchers.is(HttpStatus.BAD_REQUEST.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].message", CoreMatchers.is("Id is required")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].index", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status", CoreMatchers.is(HttpStatus.OK.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].user.firstName", CoreMatchers.is(updatedUser.getFirstName())));
+    }
+
+    @Test
+    @DisplayName("Deleting users in batch")
+    public void givenIds_whenDeleteAll_thenResultPerIdIsReturned() throws Exception {
+        //given
+        given(userService.deleteAll(List.of(1L, 2L))).willReturn(List.of(
+                BatchItemResult.builder().index(0).id(1L).status(HttpStatus.OK.value())
+                        .message("User was deleted").build(),
+                BatchItemResult.builder().index(1).id(2L).status(HttpStatus.NOT_FOUND.value())
+                        .message("User by id:2 was not found").build()));
+
+        //when
+        ResultActions result = mockMvc.perform(delete("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", CoreMatchers.is(HttpStatus.OK.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status", CoreMatchers.is(HttpStatus.NOT_FOUND.value())));
+    }
+
+    @Test
+    @DisplayName("Getting user by email")
+    public void givenEmail_whenGetByEmail_thenSuccessResponse() throws Exception {
+        //given
+        UserDto user = UserUtil.getMarkBohnPersistedDto();
+        given(userService.getByEmail("mark@gmail.com")).willReturn(user);
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/by-email").param("email", "mark@gmail.com"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id", CoreMatchers.is(1)));
+    }
+
+    @Test
+    @DisplayName("Registration user with taken email")
+    public void givenUserWithTakenEmail_whenRegisterUser_thenConflictResponse() throws Exception {
+        //given
+        String errorMessage = "User with email:mark@gmail.com already exists";
+        given(userService.save(any(UserDto.class))).willThrow(new ConflictException(errorMessage));
+
+        //when
+        ResultActions result = mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(UserUtil.getMarkBohnDto())));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", CoreMatchers.is(HttpStatus.CONFLICT.value())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is(errorMessage)));
+    }
+
+    @Test
+    @DisplayName("Searching users by name prefix")
+    public void givenNamePrefix_whenSearch_thenSuccessResponse() throws Exception {
+        //given
+        UserDto user = UserUtil.getMarkBohnPersistedDto();
+        given(userService.searchByNamePrefix("Ma", 5)).willReturn(List.of(user));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/search")
+                .param("namePrefix", "Ma")
+                .param("limit", "5"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].firstName", CoreMatchers.is(user.getFirstName())));
+    }
+
+    @Test
+    @DisplayName("Searching users by blank name prefix")
+    public void givenBlankNamePrefix_whenSearch_thenErrorResponse() throws Exception {
+        //when
+        ResultActions result = mockMvc.perform(get("/users/search").param("namePrefix", " "));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message", CoreMatchers.is("Name prefix is required")));
+    }
+
+    @Test
+    @DisplayName("Searching users by address")
+    public void givenAddressQuery_whenSearchByAddress_thenSuccessResponse() throws Exception {
+        //given
+        UserDto user = UserUtil.getMarkBohnPersistedDto();
+        given(userService.searchByAddress("str. Street", 20)).willReturn(List.of(user));
+
+        //when
+        ResultActions result = mockMvc.perform(get("/users/search/address").param("query", "str. Street"));
+
+        //then
+        result.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].address", CoreMatchers.is(user.getAddress())));
+    }
 }
@@ -0,0 +1,66 @@
+package ua.mykola.UserRESTfulAPI.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredUserServiceTest {
+    @Mock
+    private UserService userService;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Every method is timed, overloads share one timer")
+    void givenCallsOfDifferentMethods_whenCalled_thenEveryMethodIsTimedSeparately() {
+        //given
+        UserDto userDto = UserUtil.getMarkBohnDto();
+        given(userService.getById(anyLong())).willReturn(userDto);
+        given(userService.getById(anyLong(), any())).willReturn(Optional.of(userDto));
+        MeteredUserService meteredUserService = new MeteredUserService(userService, registry);
+
+        //when
+        meteredUserService.getById(1L);
+        meteredUserService.getById(1L, version -> false);
+        meteredUserService.delete(1L);
+
+        //then
+        assertEquals(2, timedCalls("getById"));
+        assertEquals(1, timedCalls("delete"));
+        assertEquals(0, timedCalls("save"));
+    }
+
+    @Test
+    @DisplayName("Calls that throw are timed as well")
+    void givenFailingCall_whenCalled_thenCallIsTimed() {
+        //given
+        given(userService.getByEmail("mark@gmail.com")).willThrow(new NotFoundException("User by email:mark@gmail.com was not found"));
+        MeteredUserService meteredUserService = new MeteredUserService(userService, registry);
+
+        //when
+        assertThrows(NotFoundException.class, () -> meteredUserService.getByEmail("mark@gmail.com"));
+
+        //then
+        assertEquals(1, timedCalls("getByEmail"));
+    }
+
+    private long timedCalls(String method) {
+        return registry.get(MeteredUserService.TIMER_NAME).tag("method", method).timer().count();
+    }
+}
@@ -8,15 +8,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.CollectionUtils;
 import ua.mykola.UserRESTfulAPI.rest.dto.UserDto;
+import ua.mykola.UserRESTfulAPI.rest.response.BatchItemResult;
 import ua.mykola.UserRESTfulAPI.dao.UserRepository;
 import ua.mykola.UserRESTfulAPI.entity.User;
 import ua.mykola.UserRESTfulAPI.exception.NotFoundException;
+import ua.mykola.UserRESTfulAPI.exception.PreconditionFailedException;
 import ua.mykola.UserRESTfulAPI.exception.UnderagePersonException;
 import ua.mykola.UserRESTfulAPI.testEntities.UserUtil;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,8 +29,15 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.never;
 import static org.mockito.BDDMockito.times;
@@ -79,7 +90,6 @@ class UserServiceImplTest {
     void givenUserToUpdate_whenUpdateUser_thenRepositoryIsCalled() {
         //given
         UserDto userToUpdate = UserUtil.getMarkBohnToUpdateDto();
-        given(userRepository.isExist(anyLong())).willReturn(true);
         given(userRepository.update(any(User.class)))
                 .willReturn(UserUtil.getUpdatedMarkBohn());
 
@@ -96,22 +106,52 @@ class UserServiceImplTest {
     void givenNonExistentUser_whenUpdateUser_thenExceptionIsThrown() {
         //given
         UserDto userToUpdate = UserUtil.getMarkBohnToUpdateDto();
-        given(userRepository.isExist(anyLong())).willReturn(false);
+        given(userRepository.update(any(User.class))).willReturn(null);
 
         //when
         NotFoundException ex = assertThrows(NotFoundException.class, () -> userService.update(1l, userToUpdate));
 
         //then
         assertEquals(userNotFoundExceptionMessage, ex.getMessage());
+        verify(userRepository, never()).isExist(anyLong());
+    }
+
+    @Test
+    @DisplayName("Updating user with the expected version")
+    void givenExpectedVersion_whenUpdateUser_thenConditionalUpdateIsCalled() {
+        //given
+        UserDto userToUpdate = UserUtil.getMarkBohnToUpdateDto();
+        given(userRepository.update(any(User.class), eq(2L))).willReturn(UserUtil.getUpdatedMarkBohn());
+
+        //when
+        UserDto updatedUser = userService.update(1L, userToUpdate, 2L);
+
+        //then
+        assertEquals(UserDto.fromEntity(UserUtil.getUpdatedMarkBohn()), updatedUser);
         verify(userRepository, never()).update(any(User.class));
     }
 
+    @Test
+    @DisplayName("Updating user with an outdated version")
+    void givenOutdatedVersion_whenUpdateUser_thenExceptionIsThrown() {
+        //given
+        UserDto userToUpdate = UserUtil.getMarkBohnToUpdateDto();
+        given(userRepository.update(any(User.class), eq(2L)))
+                .willThrow(new PreconditionFailedException("User by id:1 was changed by another request"));
+
+        //when
+        PreconditionFailedException ex = assertThrows(PreconditionFailedException.class,
+                () -> userService.update(1L, userToUpdate, 2L));
+
+        //then
+        assertEquals("User by id:1 was changed by another request", ex.getMessage());
+    }
+
     @Test
     @DisplayName("Updating user under 18 Years")
     void givenUserUnder18YearsToUpdate_whenUpdateUser_thenRepositoryIsCalled() {
         //given
         UserDto userToUpdate = UserUtil.getLeoUnder18YearsToUpdateDto();
-        given(userRepository.isExist(anyLong())).willReturn(true);
 
         //when
         UnderagePersonException ex = assertThrows(UnderagePersonException.class,
@@ -155,6 +195,102 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).getById(anyLong());
     }
 
+    @Test
+    @DisplayName("User data shared by reads cannot be modified")
+    void givenSharedUserData_whenModified_thenChangeIsRejected() {
+        //given
+        given(userRepository.getById(anyLong())).willReturn(Optional.of(UserUtil.getMarkBohnPersisted()));
+        UserDto firstRead = userService.getById(1L);
+
+        //when
+        assertThrows(UnsupportedOperationException.class, () -> firstRead.setAddress("Changed street 1"));
+        UserDto secondRead = userService.getById(1L);
+
+        //then
+        assertSame(firstRead, secondRead);
+        assertEquals(UserUtil.getMarkBohnPersisted().getAddress(), secondRead.getAddress());
+    }
+
+    @Test
+    @DisplayName("Reads of the same state of a user share its user data")
+    void givenStoredUser_whenReadAgain_thenSameUserDataIsReturned() {
+        //given
+        User user = UserUtil.getMarkBohnPersisted();
+        User updatedUser = UserUtil.getUpdatedMarkBohn();
+        given(userRepository.getById(anyLong()))
+                .willReturn(Optional.of(user))
+                .willReturn(Optional.of(user))
+                .willReturn(Optional.of(updatedUser));
+        given(userRepository.getAll()).willReturn(List.of(user));
+
+        //when
+        UserDto firstRead = userService.getById(1L);
+        UserDto secondRead = userService.getById(1L);
+        UserDto listRead = userService.getAll().get(0);
+        UserDto readAfterUpdate = userService.getById(1L);
+
+        //then
+        assertSame(firstRead, secondRead);
+        assertSame(firstRead, listRead);
+        assertNotSame(firstRead, readAfterUpdate);
+        assertEquals(UserDto.fromEntity(updatedUser), readAfterUpdate);
+    }
+
+    @Test
+    @DisplayName("Getting user by id with its current version known")
+    void givenKnownVersion_whenGetUserById_thenNothingIsReturned() {
+        //given
+        User user = UserUtil.getMarkBohnPersisted();
+        user.setVersion(3);
+        given(userRepository.getById(anyLong())).willReturn(Optional.of(user));
+
+        //when
+        Optional<UserDto> obtainedUser = userService.getById(1L, version -> version == 3);
+
+        //then
+        assertTrue(obtainedUser.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Getting user by id with an outdated version known")
+    void givenOutdatedVersion_whenGetUserById_thenUserIsReturned() {
+        //given
+        User user = UserUtil.getMarkBohnPersisted();
+        user.setVersion(4);
+        given(userRepository.getById(anyLong())).willReturn(Optional.of(user));
+
+        //when
+        Optional<UserDto> obtainedUser = userService.getById(1L, version -> version == 3);
+
+        //then
+        assertEquals(Optional.of(UserDto.fromEntity(user)), obtainedUser);
+    }
+
+    @Test
+    @DisplayName("The version of all users changes when one of them is updated")
+    void givenUpdatedUser_whenGetAll_thenVersionChanges() {
+        //given
+        User user1 = UserUtil.getLisa40YearsPersisted();
+        User user2 = UserUtil.getAlex30YearsPersisted();
+        given(userRepository.getAll()).willReturn(List.of(user1, user2));
+        long[] versions = new long[2];
+        userService.getAll(version -> {
+            versions[0] = version;
+            return false;
+        });
+        user2.setVersion(user2.getVersion() + 1);
+
+        //when
+        Optional<List<UserDto>> obtainedUsers = userService.getAll(version -> {
+            versions[1] = version;
+            return version == versions[0];
+        });
+
+        //then
+        assertNotEquals(versions[0], versions[1]);
+        assertEquals(2, obtainedUsers.orElseThrow().size());
+    }
+
     @Test
     @DisplayName("Getting non-existent user by id")
     void givenNonExistentId_whenGetUserById_thenExceptionIsThrown() {
@@ -175,17 +311,17 @@ class UserServiceImplTest {
         //given
         LocalDate from = LocalDate.now().minusYears(35);
         LocalDate to = LocalDate.now();
-        User user1 = UserUtil.getLisa40YearsPersisted();
-        User user2 = UserUtil.getAlex30YearsPersisted();
-        given(userRepository.getAll()).willReturn(List.of(user1, user2));
+        User user = UserUtil.getAlex30YearsPersisted();
+        given(userRepository.getByBirthDateRange(from, to)).willReturn(List.of(user));
 
         //when
         List<UserDto> obtainedUsers = userService.getByBirthDateRange(from, to);
 
         //then
-        UserDto expectedUser = UserDto.fromEntity(user2);
+        UserDto expectedUser = UserDto.fromEntity(user);
         assertEquals(1, obtainedUsers.size());
         assertEquals(expectedUser, obtainedUsers.get(0));
+        verify(userRepository, never()).getAll();
     }
 
     @Test
@@ -214,4 +350,109 @@ class UserServiceImplTest {
         //then
         assertEquals(userNotFoundExceptionMessage, ex.getMessage());
     }
+
+    @Test
+    @DisplayName("Adding users in batch")
+    void givenAdultAndUnderageUsers_whenSaveAll_thenOnlyAdultIsSaved() {
+        //given
+        UserDto adult = UserUtil.getMarkBohnDto();
+        UserDto underage = UserUtil.getLeoUnder18YearsDto();
+        given(userRepository.saveAll(anyList())).willReturn(List.of(UserUtil.getMarkBohnPersisted()));
+
+        //when
+        List<BatchItemResult> results = userService.saveAll(List.of(underage, adult));
+
+        //then
+        assertEquals(2, results.size());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).getStatus());
+        assertEquals(under18ExceptionMessage, results.get(0).getMessage());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(HttpStatus.CREATED.value(), results.get(1).getStatus());
+        assertEquals(1L, results.get(1).getUser().getId());
+        verify(userRepository, times(1)).saveAll(anyList());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Adding users in batch with a user without birth date")
+    void givenUserWithoutBirthDate_whenSaveAll_thenOnlyThatUserFails() {
+        //given
+        UserDto adult = UserUtil.getMarkBohnDto();
+        UserDto withoutBirthDate = UserUtil.getMarkBohnDto();
+        withoutBirthDate.setBirthDate(null);
+        given(userRepository.saveAll(anyList())).willReturn(List.of(UserUtil.getMarkBohnPersisted()));
+
+        //when
+        List<BatchItemResult> results = userService.saveAll(List.of(withoutBirthDate, adult));
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).getStatus());
+        assertEquals("Birth date is required", results.get(0).getMessage());
+        assertEquals(HttpStatus.CREATED.value(), results.get(1).getStatus());
+        verify(userRepository).saveAll(argThat(users -> users.size() == 1));
+    }
+
+    @Test
+    @DisplayName("Updating users in batch")
+    void givenExistingAndNonExistentUsers_whenUpdateAll_thenResultPerItemIsReturned() {
+        //given
+        UserDto existingUser = UserUtil.getMarkBohnToUpdateDto();
+        existingUser.setId(1L);
+        UserDto nonExistentUser = UserUtil.getMarkBohnToUpdateDto();
+        nonExistentUser.setId(2L);
+        given(userRepository.updateAll(anyList())).willReturn(Arrays.asList(UserUtil.getUpdatedMarkBohn(), null));
+
+        //when
+        List<BatchItemResult> results = userService.updateAll(List.of(existingUser, nonExistentUser));
+
+        //then
+        assertEquals(HttpStatus.OK.value(), results.get(0).getStatus());
+        assertEquals("Markiyan", results.get(0).getUser().getFirstName());
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(1).getStatus());
+        assertEquals("User by id:2 was not found", results.get(1).getMessage());
+        verify(userRepository, never()).isExist(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deleting users in batch")
+    void givenExistingAndNonExistentIds_whenDeleteAll_thenResultPerIdIsReturned() {
+        //given
+        given(userRepository.deleteAll(List.of(1L, 2L, 1L))).willReturn(List.of(1L));
+
+        //when
+        List<BatchItemResult> results = userService.deleteAll(List.of(1L, 2L, 1L));
+
+        //then
+        assertEquals(HttpStatus.OK.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(1).getStatus());
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(2).getStatus());
+        verify(userRepository, never()).isExist(anyLong());
+    }
+
+    @Test
+    @DisplayName("Getting user by email")
+    void givenEmail_whenGetUserByEmail_thenUserIsReturned() {
+        //given
+        given(userRepository.getByEmail("mark@gmail.com")).willReturn(Optional.of(UserUtil.getMarkBohnPersisted()));
+
+        //when
+        UserDto obtainedUser = userService.getByEmail("mark@gmail.com");
+
+        //then
+        assertEquals(1L, obtainedUser.getId());
+    }
+
+    @Test
+    @DisplayName("Adding users in batch with taken email")
+    void givenUserWithTakenEmail_whenSaveAll_thenConflictIsReported() {
+        //given
+        given(userRepository.saveAll(anyList())).willReturn(Arrays.asList((User) null));
+
+        //when
+        List<BatchItemResult> results = userService.saveAll(List.of(UserUtil.getMarkBohnDto()));
+
+        //then
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(0).getStatus());
+        assertEquals("User with email:mark@gmail.com already exists", results.get(0).getMessage());
+    }
 }
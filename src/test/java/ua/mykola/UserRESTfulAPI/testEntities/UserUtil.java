@@ -6,6 +6,14 @@ import ua.mykola.UserRESTfulAPI.entity.User;
 import java.time.LocalDate;
 
 public class UserUtil {
+    private static final String[] FIRST_NAMES = {"Mark", "Lisa", "Alex", "Olena", "Taras", "Anna", "Ivan",
+            "Maria", "Petro", "Sofia", "Andrii", "Iryna", "Oleh", "Nadia", "Yurii", "Kateryna"};
+    private static final String[] LAST_NAMES = {"Bohn", "Hotel", "Shevchenko", "Kovalenko", "Bondarenko",
+            "Tkachenko", "Kravchenko", "Oliinyk", "Melnyk", "Lysenko", "Marchenko", "Savchenko"};
+    private static final String[] STREETS = {"Main", "Park", "Oak", "Pine", "Maple", "Cedar", "Lake",
+            "Hill", "River", "Sunset", "Shevchenka", "Franka"};
+    private static final String[] CITIES = {"Kyiv", "Lviv", "Odesa", "Kharkiv", "Dnipro", "Poltava",
+            "Chernihiv", "Uzhhorod"};
 
     public static UserDto getMarkBohnDto() {
         return UserDto.builder()
@@ -100,4 +108,29 @@ public class UserUtil {
                 .birthDate(LocalDate.now().minusYears(30))
                 .build();
     }
+
+    public static User getSyntheticUser(long n) {
+        return User
+                .builder()
+                .firstName(FIRST_NAMES[(int) (n % FIRST_NAMES.length)])
+                .lastName(LAST_NAMES[(int) ((n / FIRST_NAMES.length) % LAST_NAMES.length)])
+                .email("user" + n + "@example.com")
+                .phoneNumber("+38067" + String.format("%07d", n % 10_000_000))
+                .address((n % 500) + " " + STREETS[(int) (n % STREETS.length)] + " Street, "
+                        + CITIES[(int) (n % CITIES.length)])
+                .birthDate(LocalDate.of(1950, 1, 1).plusDays(n % 18_000))
+                .build();
+    }
+
+    public static User copyOf(User user) {
+        return User
+                .builder()
+                .email(new String(user.getEmail()))
+                .firstName(new String(user.getFirstName()))
+                .lastName(new String(user.getLastName()))
+                .address(new String(user.getAddress()))
+                .phoneNumber(new String(user.getPhoneNumber()))
+                .birthDate(LocalDate.ofEpochDay(user.getBirthDate().toEpochDay()))
+                .build();
+    }
 }